@@ -0,0 +1,36 @@
+package logement;
+
+/**
+ * Reoit les lments publis au fur et  mesure par une recherche, sur le
+ * modle de java.util.concurrent.Flow.Subscriber.
+ * 
+ * La recherche appelle d'abord {@link #abonnement(Abonnement)}, puis
+ * {@link #suivant(Object)} au plus autant de fois que l'abonn a demand
+ * d'lments par {@link Abonnement#demander(long)}, puis {@link #termine()} ou
+ * {@link #erreur(Throwable)}, sauf si l'abonn a annul son abonnement. Ces
+ * mthodes sont appeles depuis la tche qui mne la recherche, ou depuis
+ * celle qui appelle {@link Abonnement#demander(long)}, mais jamais
+ * simultanment.
+ * 
+ * @param <T>
+ *            le type des lments publis.
+ */
+public interface Abonne<T> {
+
+	/**
+	 * Appele une fois, avant tout autre appel.
+	 */
+	void abonnement(Abonnement a);
+
+	void suivant(T element);
+
+	/**
+	 * Appele lorsque la recherche est finie.
+	 */
+	void termine();
+
+	/**
+	 * Appele lorsque la recherche s'interrompt sur une erreur.
+	 */
+	void erreur(Throwable e);
+}
@@ -0,0 +1,24 @@
+package logement;
+
+/**
+ * Le lien entre une recherche et son {@link Abonne}, sur le modle de
+ * java.util.concurrent.Flow.Subscription.
+ * 
+ * Tant que l'abonn n'a pas demand d'lment, la recherche ne lui envoie
+ * rien et ne garde que le dernier lment publi, qui remplace les
+ * prcdents : un abonn lent ne voit que les derniers rsultats, sans
+ * ralentir la recherche.
+ */
+public interface Abonnement {
+
+	/**
+	 * Autorise la recherche  envoyer n lments de plus. S'il y a un lment
+	 * en attente, il est envoy aussitt.
+	 */
+	void demander(long n);
+
+	/**
+	 * Arrte la recherche au plus tt. L'abonn ne reoit plus rien.
+	 */
+	void annuler();
+}
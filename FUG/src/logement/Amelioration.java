@@ -0,0 +1,58 @@
+package logement;
+
+/**
+ * Une courbe de rduction qui bat toutes celles testes avant elle par une
+ * recherche de courbe, publie au fur et  mesure de la recherche, voir
+ * {@link Logement#monteCarlo(int, int, java.io.PrintStream, Abonne)}.
+ */
+public final class Amelioration {
+
+	private final double alpha;
+	private final long graine;
+	private final double cout;
+	private final int evaluations;
+	private final CourbeReduction courbe;
+
+	Amelioration(double alpha, long graine, double cout, int evaluations, CourbeReduction courbe) {
+		this.alpha = alpha;
+		this.graine = graine;
+		this.cout = cout;
+		this.evaluations = evaluations;
+		this.courbe = courbe;
+	}
+
+	/**
+	 * @return les paramtres de la courbe, voir
+	 *         {@link Logement#setCourbeReduction(double, long)}. Un alpha nul
+	 *         dsigne l'absence de rduction, un alpha NaN la courbe relue
+	 *         par {@link Logement#chargerCourbe(java.nio.file.Path)}.
+	 */
+	public double alpha() {
+		return alpha;
+	}
+
+	public long graine() {
+		return graine;
+	}
+
+	/**
+	 * @return le cot pour le propritaire avec cette courbe.
+	 */
+	public double cout() {
+		return cout;
+	}
+
+	/**
+	 * @return le nombre de courbes candidates examines jusque-l.
+	 */
+	public int evaluations() {
+		return evaluations;
+	}
+
+	/**
+	 * @return une copie de la courbe, que la recherche ne modifie plus.
+	 */
+	public CourbeReduction courbe() {
+		return courbe;
+	}
+}
@@ -0,0 +1,168 @@
+package logement;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un cache sur disque des rsultats de {@link Logement#analyse()} et de
+ * {@link Logement#monteCarlo(int, int, java.io.PrintStream)}, conserv d'une
+ * excution  l'autre.
+ * 
+ * Chaque rsultat est rang dans un fichier dont le nom est driv de
+ * l'empreinte du scnario. La premire ligne du fichier contient l'empreinte
+ * elle-mme, les suivantes le rsultat. Les fichiers sont crits  ct puis
+ * renomms, si bien que plusieurs JVM peuvent lire et crire dans le mme
+ * rpertoire sans jamais observer de fichier incomplet. Au-del de
+ * {@link #capacite} fichiers, on supprime les moins rcemment utiliss.
+ */
+public class CacheEquilibres {
+
+	private static final String EXTENSION = ".txt";
+
+	/**
+	 * Le rpertoire contenant les fichiers du cache.
+	 */
+	private final Path repertoire;
+
+	/**
+	 * Le nombre maximal de rsultats conservs.
+	 */
+	private final int capacite;
+
+	/**
+	 * @param repertoire
+	 *            cr s'il n'existe pas.
+	 * @param capacite
+	 *            le nombre maximal de rsultats conservs.
+	 * @throws IOException
+	 *             si le rpertoire ne peut pas tre cr.
+	 */
+	public CacheEquilibres(Path repertoire, int capacite) throws IOException {
+		if (capacite < 1)
+			throw new IllegalArgumentException("Le cache doit pouvoir contenir au moins un rsultat.");
+		this.repertoire = Files.createDirectories(repertoire);
+		this.capacite = capacite;
+	}
+
+	/**
+	 * @param empreinte
+	 *            l'empreinte canonique du scnario.
+	 * @return les lignes mmorises pour ce scnario, null s'il n'est pas dans
+	 *         le cache.
+	 */
+	public List<String> lire(String empreinte) {
+		Path fichier = fichier(empreinte);
+		try {
+			List<String> lignes = Files.readAllLines(fichier, StandardCharsets.UTF_8);
+
+			// Deux empreintes peuvent en thorie donner le mme nom de
+			// fichier.
+			if (lignes.isEmpty() || !lignes.get(0).equals(empreinte))
+				return null;
+
+			// On note que le rsultat vient de servir pour l'viction.
+			Files.setLastModifiedTime(fichier, FileTime.fromMillis(System.currentTimeMillis()));
+			return lignes.subList(1, lignes.size());
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Mmorise un rsultat, en remplaant celui qui aurait dj t mmoris
+	 * pour ce scnario.
+	 * 
+	 * @param empreinte
+	 *            l'empreinte canonique du scnario.
+	 * @param resultat
+	 *            les lignes  mmoriser.
+	 */
+	public void ecrire(String empreinte, List<String> resultat) {
+		List<String> lignes = new ArrayList<>(resultat.size() + 1);
+		lignes.add(empreinte);
+		lignes.addAll(resultat);
+
+		Path temporaire = null;
+		try {
+			temporaire = Files.createTempFile(repertoire, "ecriture", ".tmp");
+			Files.write(temporaire, lignes, StandardCharsets.UTF_8);
+			Files.move(temporaire, fichier(empreinte), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+			evincer();
+		} catch (IOException e) {
+			e.printStackTrace();
+			try {
+				if (temporaire != null)
+					Files.deleteIfExists(temporaire);
+			} catch (IOException e1) {
+				e1.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Supprime les rsultats les moins rcemment utiliss jusqu' revenir 
+	 * {@link #capacite} rsultats. Un verrou sur le rpertoire empche deux
+	 * JVM d'vincer en mme temps ; au sein d'une mme JVM, le verrou ne peut
+	 * tre pris que par une tche  la fois.
+	 */
+	private synchronized void evincer() throws IOException {
+		try (FileChannel canal = FileChannel.open(repertoire.resolve("verrou"), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE)) {
+			// Le verrou est libr  la fermeture du canal.
+			canal.lock();
+
+			List<Path> fichiers = new ArrayList<>();
+			try (DirectoryStream<Path> contenu = Files.newDirectoryStream(repertoire, "*" + EXTENSION)) {
+				for (Path p : contenu)
+					fichiers.add(p);
+			}
+			if (fichiers.size() <= capacite)
+				return;
+
+			Map<Path, FileTime> dates = new HashMap<>();
+			for (Path p : fichiers) {
+				try {
+					dates.put(p, Files.getLastModifiedTime(p));
+				} catch (NoSuchFileException e) {
+					// Dj supprim par une autre JVM.
+				}
+			}
+			fichiers = new ArrayList<>(dates.keySet());
+			fichiers.sort(Comparator.comparing(dates::get));
+
+			for (int i = 0; i < fichiers.size() - capacite; i++)
+				Files.deleteIfExists(fichiers.get(i));
+		}
+	}
+
+	private Path fichier(String empreinte) {
+		try {
+			byte[] hachage = MessageDigest.getInstance("SHA-256").digest(empreinte.getBytes(StandardCharsets.UTF_8));
+			StringBuilder nom = new StringBuilder();
+			for (byte b : hachage)
+				nom.append(String.format("%02x", b));
+			return repertoire.resolve(nom.append(EXTENSION).toString());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
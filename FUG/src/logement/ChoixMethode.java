@@ -0,0 +1,144 @@
+package logement;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Choisit les mthodes qu'essaie {@link Logement.Methode#AUTO}, de la plus
+ * rapide  la plus lente d'aprs une estimation de leur cot.
+ * 
+ * Le cot de chaque mthode est estim en nombre d'valuations d'utilit, 
+ * partir du nombre m d'usagers, du nombre n de stratgies et du nombre g de
+ * profils diffrents :
+ * <ul>
+ * <li>{@link Logement.Methode#MEILLEUREREPONSEINCREMENTALE} : m * n par
+ * tour, pour {@link #TOURS} tours ;</li>
+ * <li>{@link Logement.Methode#MULTIRESOLUTION} : m *
+ * {@link RaffinementGrille#GRILLE_GROSSIERE} par tour et par niveau, puis un
+ * tour de vrification sur toutes les stratgies ;</li>
+ * <li>{@link Logement.Methode#SYMETRIE} : g * n par rpartition, pour
+ * {@link EnumerationSymetrique#nombreRepartitions()} rpartitions ;</li>
+ * <li>{@link Logement.Methode#PROGRAMMATIONDYNAMIQUE} : m * n * c par
+ * fentre, pour 2 * m * n + 1 fentres, le nombre c de consommations
+ * distinctes tant major par le nombre de rpartitions et par m * n *
+ * g ;</li>
+ * <li>{@link Logement.Methode#BRUTEFORCE} : m * n par vecteur, pour n^m
+ * vecteurs, qu'il faut en plus garder en mmoire ;</li>
+ * <li>{@link Logement.Methode#MEILLEUREREPONSE} : comme la mthode
+ * incrmentale, qui passe avant elle  cot gal puisqu'elle ne rexamine
+ * pas tous les usagers  chaque tour.</li>
+ * </ul>
+ * Les estimations des mthodes exactes sont des majorants : l'lagage les
+ * rend souvent bien plus rapides. Une mthode dont le cot dpasse
+ * {@link #COUT_MAXIMAL} n'est pas essaye. {@link Logement.Methode#LRI},
+ * dont le temps de calcul ne se prvoit pas, est toujours essaye en
+ * dernier.
+ */
+class ChoixMethode {
+
+	/**
+	 * Le nombre de tours de meilleure rponse que l'on prvoit.
+	 */
+	static final int TOURS = 10;
+	/**
+	 * Le temps d'une valuation d'utilit, en nanosecondes, mesur sur les
+	 * mthodes itratives.
+	 */
+	static final double NANOSECONDES_PAR_EVALUATION = 20;
+	/**
+	 * Au-del de ce nombre d'valuations, une mthode n'est pas essaye.
+	 */
+	static final double COUT_MAXIMAL = 1e10;
+	/**
+	 * Le nombre maximal de cases du tableau de {@link Logement#forceBrute()}.
+	 */
+	static final double CASES_FORCE_BRUTE = 1 << 22;
+	/**
+	 * Le temps accord  une mthode est MARGE fois son temps estim, et au
+	 * moins {@link #BUDGET_MINIMAL} millisecondes.
+	 */
+	static final double MARGE = 10;
+	static final long BUDGET_MINIMAL = 50;
+
+	/**
+	 * Une mthode candidate et son cot estim.
+	 */
+	static class Candidat {
+		final Logement.Methode methode;
+		final double cout;
+
+		Candidat(Logement.Methode methode, double cout) {
+			this.methode = methode;
+			this.cout = cout;
+		}
+
+		/**
+		 * @return le temps accord  la mthode, en nanosecondes,
+		 *         Long.MAX_VALUE pour ne pas la limiter.
+		 */
+		long budget() {
+			if (Double.isInfinite(cout))
+				return Long.MAX_VALUE;
+			return (long) Math.max(BUDGET_MINIMAL * 1e6, MARGE * cout * NANOSECONDES_PAR_EVALUATION);
+		}
+	}
+
+	private final List<Candidat> candidats = new ArrayList<>();
+	private final StringBuilder raisons = new StringBuilder();
+
+	ChoixMethode(Logement logement) {
+		double m = logement.nombreUsagers();
+		double n = logement.nombreStrategies();
+		EnumerationSymetrique symetrie = new EnumerationSymetrique(logement);
+		double g = symetrie.nombreProfils();
+		double repartitions = symetrie.nombreRepartitions();
+		double vecteurs = Math.pow(n, m);
+
+		raisons.append((int) m).append(" usagers, ").append((int) n).append(" stratgies, ").append((int) g)
+				.append(" profils");
+
+		double niveaux = Math.max(1, Math.ceil(Math.log(n / RaffinementGrille.GRILLE_GROSSIERE) / Math.log(2)) + 1);
+		envisager(Logement.Methode.MEILLEUREREPONSEINCREMENTALE, m * n * TOURS, null);
+		envisager(Logement.Methode.MULTIRESOLUTION,
+				m * RaffinementGrille.GRILLE_GROSSIERE * TOURS * niveaux + m * n, null);
+		envisager(Logement.Methode.SYMETRIE, repartitions * g * n, null);
+		envisager(Logement.Methode.PROGRAMMATIONDYNAMIQUE,
+				(2 * m * n + 1) * m * n * Math.min(repartitions, m * n * g), null);
+		envisager(Logement.Methode.BRUTEFORCE, vecteurs * m * n,
+				vecteurs * m > CASES_FORCE_BRUTE ? String.format("tableau de %.2g cases", vecteurs * m) : null);
+		envisager(Logement.Methode.MEILLEUREREPONSE, m * n * TOURS, null);
+
+		candidats.sort(Comparator.comparingDouble(c -> c.cout));
+		candidats.add(new Candidat(Logement.Methode.LRI, Double.POSITIVE_INFINITY));
+
+		raisons.append(" ; ordre :");
+		for (Candidat c : candidats)
+			raisons.append(" ").append(c.methode);
+	}
+
+	private void envisager(Logement.Methode methode, double cout, String exclusion) {
+		raisons.append(" ; ").append(methode).append(" ").append(String.format("%.2g", cout));
+		if (exclusion == null && cout > COUT_MAXIMAL)
+			exclusion = "trop coteux";
+		if (exclusion != null)
+			raisons.append(" (carte : ").append(exclusion).append(")");
+		else
+			candidats.add(new Candidat(methode, cout));
+	}
+
+	/**
+	 * @return les mthodes  essayer dans l'ordre, la dernire tant
+	 *         {@link Logement.Methode#LRI}.
+	 */
+	List<Candidat> candidats() {
+		return candidats;
+	}
+
+	/**
+	 * @return les estimations ayant men au choix, sur une ligne.
+	 */
+	String raisons() {
+		return raisons.toString();
+	}
+}
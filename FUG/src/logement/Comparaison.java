@@ -0,0 +1,126 @@
+package logement;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Les rsultats de {@link Logement#comparer(List, int)} : un mme logement
+ * analys avec plusieurs politiques ou courbes de rduction.
+ * 
+ * Les gains sont mesurs par rapport  une variante de rfrence : la
+ * premire sans rduction s'il y en a une, la premire sinon.
+ */
+public class Comparaison {
+
+	/**
+	 * Le rsultat de l'analyse du logement avec une variante.
+	 */
+	public static class Resultat {
+		/**
+		 * La politique, la mthode et la courbe analyses.
+		 */
+		public final Scenario variante;
+		public final double cout;
+		public final double consommation;
+		public final double confort;
+		/**
+		 * Voir {@link Logement#dernierRegret()}.
+		 */
+		public final double regret;
+		/**
+		 * La dure de l'analyse, en millisecondes.
+		 */
+		public final long duree;
+
+		public Resultat(Scenario variante, double cout, double consommation, double confort, double regret,
+				long duree) {
+			this.variante = variante;
+			this.cout = cout;
+			this.consommation = consommation;
+			this.confort = confort;
+			this.regret = regret;
+			this.duree = duree;
+		}
+
+		/**
+		 * @return la politique de la variante, sa courbe ventuelle et sa
+		 *         mthode.
+		 */
+		public String description() {
+			String d = variante.politique().toString();
+			if (variante.politique() == Logement.Politique.MONTECARLO && variante.courbe())
+				d += " (alpha " + variante.alphaCourbe() + ", graine " + variante.graineCourbe() + ")";
+			return d + " / " + variante.methode();
+		}
+
+		@Override
+		public String toString() {
+			return description() + " : cot " + cout + ", consommation " + consommation + ", confort " + confort
+					+ ", regret " + regret + ", " + duree + " ms";
+		}
+	}
+
+	private final List<Resultat> resultats = new ArrayList<>();
+	private int reference = -1;
+
+	/**
+	 * Ajoute le rsultat de la variante suivante.
+	 */
+	public void ajouter(Resultat r) {
+		if (reference < 0 || (r.variante.politique() == Logement.Politique.AUCUNEREDUCTION
+				&& resultats.get(reference).variante.politique() != Logement.Politique.AUCUNEREDUCTION))
+			reference = resultats.size();
+		resultats.add(r);
+	}
+
+	/**
+	 * @return les rsultats, dans l'ordre des variantes.
+	 */
+	public List<Resultat> resultats() {
+		return Collections.unmodifiableList(resultats);
+	}
+
+	/**
+	 * @return le rsultat de la variante de rfrence, null s'il n'y a aucun
+	 *         rsultat.
+	 */
+	public Resultat reference() {
+		return reference < 0 ? null : resultats.get(reference);
+	}
+
+	/**
+	 * @return le rsultat de moindre cot pour le propritaire, null s'il n'y
+	 *         a aucun rsultat.
+	 */
+	public Resultat meilleur() {
+		Resultat meilleur = null;
+		for (Resultat r : resultats)
+			if (meilleur == null || r.cout < meilleur.cout)
+				meilleur = r;
+		return meilleur;
+	}
+
+	/**
+	 * @return ce que le propritaire conomise avec la variante r par rapport
+	 *          la rfrence.
+	 */
+	public double gain(Resultat r) {
+		return reference().cout - r.cout;
+	}
+
+	/**
+	 * crit le rapport de comparaison : une ligne par variante avec son gain
+	 * par rapport  la rfrence, puis la meilleure variante.
+	 */
+	public void ecrire(PrintStream sortie) {
+		if (resultats.isEmpty())
+			return;
+		sortie.println("Comparaison de " + resultats.size() + " variantes, rfrence " + reference().description());
+		for (Resultat r : resultats)
+			sortie.println(r + ", gain " + gain(r));
+		sortie.println("Meilleure variante : " + meilleur().description());
+		sortie.println();
+	}
+}
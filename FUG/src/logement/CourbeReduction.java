@@ -0,0 +1,330 @@
+package logement;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import usager.Usager;
+
+/**
+ * Une fonction de rduction en escalier, dfinie entre
+ * {@link Usager#TEMPERATURE_MINIMALE} et {@link Logement#TEMPERATURE_MAX}.
+ * L'intervalle est dcoup en {@link #resolution} paliers de mme largeur,
+ * mais on ne mmorise que les paliers o la rduction change de valeur : la
+ * mmoire et le temps de recherche d'une rduction dpendent du nombre de
+ * changements de valeur, pas de la rsolution.
+ * 
+ * Une mme courbe peut tre regnre autant de fois qu'on le souhaite par
+ * {@link #generer(double, long)} sans allouer de mmoire, ce qui permet de
+ * tester un grand nombre de courbes candidates. Elle peut aussi tre
+ * retouche palier par palier par {@link #modifier(int, int, double)}.
+ */
+public class CourbeReduction {
+
+	/**
+	 * La rsolution maximale d'une courbe.
+	 */
+	public static final int RESOLUTION_MAX = 100000;
+
+	/**
+	 * Le nombre de paliers de mme largeur dcoupant l'intervalle de
+	 * tempratures.
+	 */
+	private final int resolution;
+
+	/**
+	 * Le nombre de paliers tirs au hasard lors de la gnration de la
+	 * courbe. La courbe change au plus granularite fois de valeur.
+	 */
+	private final int granularite;
+
+	/**
+	 * debuts[j] est le premier palier du morceau j, sur lequel la rduction
+	 * vaut valeurs[j]. debuts[0] vaut toujours 0. Les tableaux sont agrandis
+	 * si des modifications portent le nombre de morceaux au-del de
+	 * granularite + 1.
+	 */
+	private int[] debuts;
+	private double[] valeurs;
+	private int nombreMorceaux;
+
+	/**
+	 * Rutiliss  chaque gnration.
+	 */
+	private final int[] tirages;
+	private final Random r;
+
+	/**
+	 * Cre une courbe nulle partout.
+	 * 
+	 * @param resolution
+	 *            entre 1 et {@link #RESOLUTION_MAX}.
+	 * @param granularite
+	 *            voir {@link #generer(double, long)}.
+	 */
+	public CourbeReduction(int resolution, int granularite) {
+		if (resolution < 1 || resolution > RESOLUTION_MAX)
+			throw new IllegalArgumentException("La rsolution doit tre comprise entre 1 et " + RESOLUTION_MAX + ".");
+		this.resolution = resolution;
+		this.granularite = granularite;
+		debuts = new int[granularite + 1];
+		valeurs = new double[granularite + 1];
+		tirages = new int[granularite];
+		r = new Random();
+		nombreMorceaux = 1;
+	}
+
+	/**
+	 * @return une copie de la courbe, que l'on peut modifier ou regnrer
+	 *         sans toucher  celle-ci.
+	 */
+	public CourbeReduction copie() {
+		CourbeReduction c = new CourbeReduction(resolution, granularite);
+		c.reserver(nombreMorceaux);
+		System.arraycopy(debuts, 0, c.debuts, 0, nombreMorceaux);
+		System.arraycopy(valeurs, 0, c.valeurs, 0, nombreMorceaux);
+		c.nombreMorceaux = nombreMorceaux;
+		return c;
+	}
+
+	/**
+	 * Relit une courbe crite par une recherche de courbe dans
+	 * courbe_de_reduction.txt : une ligne par palier, au format [temprature]
+	 * [rduction].
+	 * 
+	 * @return la courbe, dont la rsolution est le nombre de lignes.
+	 */
+	public static CourbeReduction lire(Path fichier) throws IOException {
+		List<String> lignes = Files.readAllLines(fichier, StandardCharsets.UTF_8);
+		lignes.removeIf(l -> l.trim().isEmpty());
+		double[] reductions = new double[lignes.size()];
+		int morceaux = 0;
+		for (int p = 0; p < reductions.length; p++) {
+			String[] mots = lignes.get(p).trim().split("\\s+");
+			if (mots.length != 2)
+				throw new IOException("Ligne " + (p + 1) + " de " + fichier + " : [temprature] [rduction] attendu.");
+			reductions[p] = Double.parseDouble(mots[1]);
+			if (p == 0 || reductions[p] != reductions[p - 1])
+				morceaux++;
+		}
+
+		CourbeReduction c = new CourbeReduction(reductions.length, Math.max(1, morceaux - 1));
+		c.nombreMorceaux = 0;
+		for (int p = 0; p < reductions.length; p++)
+			if (p == 0 || reductions[p] != reductions[p - 1]) {
+				c.debuts[c.nombreMorceaux] = p;
+				c.valeurs[c.nombreMorceaux++] = reductions[p];
+			}
+		return c;
+	}
+
+	/**
+	 * @return une valeur qui ne dpend que des paliers et des rductions de
+	 *         la courbe, pour la reconnatre dans une empreinte.
+	 */
+	long empreinte() {
+		long h = resolution;
+		for (int j = 0; j < nombreMorceaux; j++)
+			h = 31 * (31 * h + debuts[j]) + Double.doubleToLongBits(valeurs[j]);
+		return h;
+	}
+
+	/**
+	 * Remplace la courbe par une fonction dcroissante telle que f(0) = max et
+	 * f(1) = 0, sur les tempratures normalises. On tire au hasard
+	 * {@link #granularite} paliers ; la courbe perd max / granularite aprs
+	 * chacun d'eux.
+	 * 
+	 * @param max
+	 *            la rduction au premier palier.
+	 * @param seed
+	 *            la graine utilise pour tirer les paliers. Une mme graine
+	 *            donne toujours la mme courbe.
+	 */
+	public void generer(double max, long seed) {
+		r.setSeed(seed);
+		for (int i = 0; i < granularite; i++)
+			tirages[i] = r.nextInt(resolution);
+		Arrays.sort(tirages);
+
+		// La rduction d'un palier est proportionnelle au nombre de paliers
+		// tirs  sa droite, lui compris. Elle ne change donc qu'aprs un
+		// palier tir.
+		nombreMorceaux = 0;
+		int debut = 0;
+		int i = 0;
+		while (true) {
+			debuts[nombreMorceaux] = debut;
+			valeurs[nombreMorceaux++] = (granularite - i) / (granularite / max);
+			if (i == granularite)
+				return;
+
+			int tire = tirages[i];
+			while (i < granularite && tirages[i] == tire)
+				i++;
+			if (tire + 1 >= resolution)
+				return;
+			debut = tire + 1;
+		}
+	}
+
+	/**
+	 * @return la rduction accorde  un usager chauffant  temperature.
+	 *         Complexit en O(log n), n tant le nombre de morceaux.
+	 */
+	public double reduction(double temperature) {
+		return valeurs[morceau(palier(temperature))];
+	}
+
+	/**
+	 * Donne la rduction valeur aux paliers premier  dernier inclus, en
+	 * fusionnant les morceaux voisins de mme valeur.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             si les paliers ne sont pas ceux de la courbe.
+	 */
+	public void modifier(int premier, int dernier, double valeur) {
+		if (premier < 0 || dernier >= resolution || premier > dernier)
+			throw new IllegalArgumentException(
+					"Les paliers " + premier + "  " + dernier + " ne sont pas ceux de la courbe.");
+
+		// La rduction qui reprend aprs le dernier palier modifi.
+		double suivante = dernier + 1 < resolution ? valeurs[morceau(dernier + 1)] : valeur;
+
+		int[] d = new int[nombreMorceaux + 2];
+		double[] v = new double[nombreMorceaux + 2];
+		int n = 0;
+		int j = 0;
+		for (; j < nombreMorceaux && debuts[j] < premier; j++, n++) {
+			d[n] = debuts[j];
+			v[n] = valeurs[j];
+		}
+		if (n == 0 || v[n - 1] != valeur) {
+			d[n] = premier;
+			v[n++] = valeur;
+		}
+		if (dernier + 1 < resolution && suivante != valeur) {
+			d[n] = dernier + 1;
+			v[n++] = suivante;
+		}
+		for (; j < nombreMorceaux; j++)
+			if (debuts[j] > dernier + 1 && valeurs[j] != v[n - 1]) {
+				d[n] = debuts[j];
+				v[n++] = valeurs[j];
+			}
+
+		reserver(n);
+		System.arraycopy(d, 0, debuts, 0, n);
+		System.arraycopy(v, 0, valeurs, 0, n);
+		nombreMorceaux = n;
+	}
+
+	/**
+	 * @return le morceau contenant le palier p.
+	 */
+	private int morceau(int p) {
+		int j = Arrays.binarySearch(debuts, 0, nombreMorceaux, p);
+		return j >= 0 ? j : -j - 2;
+	}
+
+	/**
+	 * Agrandit si besoin les tableaux pour qu'ils contiennent morceaux
+	 * morceaux.
+	 */
+	private void reserver(int morceaux) {
+		if (debuts.length >= morceaux)
+			return;
+		int taille = Math.max(morceaux, 2 * debuts.length);
+		debuts = Arrays.copyOf(debuts, taille);
+		valeurs = Arrays.copyOf(valeurs, taille);
+	}
+
+	/**
+	 * Calcule la rduction de plusieurs tempratures d'un coup, en parcourant
+	 * la courbe une seule fois.
+	 * 
+	 * @param temperatures
+	 *            tries par ordre croissant.
+	 * @param reductions
+	 *            reoit la rduction de chaque temprature.
+	 */
+	public void reductions(double[] temperatures, double[] reductions) {
+		int j = 0;
+		for (int k = 0; k < temperatures.length; k++) {
+			int p = palier(temperatures[k]);
+			while (j + 1 < nombreMorceaux && debuts[j + 1] <= p)
+				j++;
+			reductions[k] = valeurs[j];
+		}
+	}
+
+	/**
+	 * @return le palier contenant temperature. Les tempratures hors de
+	 *         l'intervalle sont ramenes au premier ou au dernier palier.
+	 */
+	public int palier(double temperature) {
+		int p = (int) (resolution * (temperature - Usager.TEMPERATURE_MINIMALE)
+				/ (Logement.TEMPERATURE_MAX - Usager.TEMPERATURE_MINIMALE));
+		return Math.max(0, Math.min(resolution - 1, p));
+	}
+
+	/**
+	 * @return la temprature  laquelle commence le palier p.
+	 */
+	public double temperature(int p) {
+		return Usager.TEMPERATURE_MINIMALE + (Logement.TEMPERATURE_MAX - Usager.TEMPERATURE_MINIMALE) * p / resolution;
+	}
+
+	public int resolution() {
+		return resolution;
+	}
+
+	/**
+	 * @return le nombre de morceaux sur lesquels la rduction est constante.
+	 */
+	public int nombreMorceaux() {
+		return nombreMorceaux;
+	}
+
+	/**
+	 * @return le premier palier du morceau j.
+	 */
+	public int debut(int j) {
+		return debuts[j];
+	}
+
+	/**
+	 * @return la rduction sur le morceau j.
+	 */
+	public double valeur(int j) {
+		return valeurs[j];
+	}
+
+	/**
+	 * Dessine la courbe, voir
+	 * {@link Logement#drawCourbeReduction(Graphics, int, int, Color, int, int)}.
+	 */
+	public void dessiner(Graphics g, int abcisse, int ordonnee, Color c, int width, int height) {
+		g.setColor(c);
+
+		// On trace chaque morceau constant, puis la marche qui le relie au
+		// suivant.
+		for (int j = 0; j < nombreMorceaux; j++) {
+			int y = (height - ordonnee) - (int) (valeurs[j] * (height - ordonnee));
+			int fin = j + 1 < nombreMorceaux ? debuts[j + 1] : resolution;
+			g.drawLine(abcisse + debuts[j] * (width - abcisse) / resolution, y,
+					abcisse + (fin - 1) * (width - abcisse) / resolution, y);
+
+			if (fin < resolution)
+				g.drawLine(abcisse + (fin - 1) * (width - abcisse) / resolution, y,
+						abcisse + fin * (width - abcisse) / resolution, (height - ordonnee)
+								- (int) (valeurs[j + 1] * (height - ordonnee)));
+		}
+	}
+}
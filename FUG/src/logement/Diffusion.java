@@ -0,0 +1,105 @@
+package logement;
+
+/**
+ * Transmet  un {@link Abonne} les lments publis par une recherche, en
+ * respectant sa demande, voir {@link Abonnement}.
+ */
+class Diffusion<T> implements Abonnement {
+
+	private final Abonne<T> abonne;
+
+	private long demande;
+	/**
+	 * Le dernier lment publi que l'abonn n'a pas encore reu faute de
+	 * l'avoir demand. null s'il n'y en a pas.
+	 */
+	private T enAttente;
+	private boolean terminee;
+	/**
+	 * Vrai une fois que l'abonn a reu {@link Abonne#termine()} ou
+	 * {@link Abonne#erreur(Throwable)}.
+	 */
+	private boolean fermee;
+	private volatile boolean annulee;
+
+	/**
+	 * @param abonne
+	 *            reoit aussitt cette diffusion par
+	 *            {@link Abonne#abonnement(Abonnement)}.
+	 */
+	Diffusion(Abonne<T> abonne) {
+		this.abonne = abonne;
+		abonne.abonnement(this);
+	}
+
+	@Override
+	public synchronized void demander(long n) {
+		if (n <= 0) {
+			annuler();
+			fermee = true;
+			abonne.erreur(new IllegalArgumentException("On doit demander au moins un lment."));
+			return;
+		}
+		demande = demande + n < 0 ? Long.MAX_VALUE : demande + n;
+		if (enAttente != null && ouverte()) {
+			T e = enAttente;
+			enAttente = null;
+			demande--;
+			abonne.suivant(e);
+		}
+		if (terminee && enAttente == null && ouverte()) {
+			fermee = true;
+			abonne.termine();
+		}
+	}
+
+	@Override
+	public void annuler() {
+		annulee = true;
+	}
+
+	/**
+	 * @return vrai si l'abonn a annul son abonnement : la recherche doit
+	 *         s'arrter.
+	 */
+	boolean annulee() {
+		return annulee;
+	}
+
+	/**
+	 * Envoie e  l'abonn s'il l'a demand, sinon le garde en attente  la
+	 * place du prcdent.
+	 */
+	synchronized void publier(T e) {
+		if (!ouverte())
+			return;
+		if (demande > 0) {
+			demande--;
+			abonne.suivant(e);
+		} else
+			enAttente = e;
+	}
+
+	/**
+	 * Signale la fin de la recherche, aprs le dernier lment en attente
+	 * s'il y en a un.
+	 */
+	synchronized void terminer() {
+		terminee = true;
+		if (enAttente == null && ouverte()) {
+			fermee = true;
+			abonne.termine();
+		}
+	}
+
+	synchronized void echouer(Throwable e) {
+		if (!ouverte())
+			return;
+		fermee = true;
+		abonne.erreur(e);
+	}
+
+	private boolean ouverte() {
+		return !annulee && !fermee;
+	}
+}
@@ -0,0 +1,241 @@
+package logement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import usager.Usager;
+
+/**
+ * Recherche exacte d'un Nash pur tirant parti des usagers interchangeables.
+ * 
+ * Deux usagers de mme profil (mme temprature idale, mmes poids) ont la
+ * mme utilit : changer leurs stratgies ne change rien. Au lieu
+ * d'numrer qui choisit quoi, comme {@link Logement#forceBrute()}, on
+ * numre pour chaque groupe d'usagers identiques combien d'entre eux
+ * choisissent chaque stratgie. Un profil de groupe est un Nash pur si aucun
+ * usager d'aucun groupe, quelle que soit sa stratgie, ne gagne  en changer
+ * seul.
+ * 
+ * Avec n usagers identiques et k stratgies, on teste C(n + k - 1, k - 1)
+ * rpartitions au lieu de k^n vecteurs : le nombre de cas est polynomial en
+ * la taille des groupes.
+ * 
+ * On lague en plus les stratgies qu'aucun usager d'un groupe ne peut
+ * suivre  l'quilibre. Pour deux stratgies s et k, le gain  passer de s 
+ * k est une fonction monotone de la facture. Avant de rpartir un groupe, on
+ * encadre la consommation totale  partir des groupes dj rpartis, donc la
+ * facture. Si une dviation est profitable aux deux bornes de cet
+ * encadrement, elle l'est partout entre les deux, et s est exclue pour tout
+ * le groupe. Sous le seuil de {@link Logement#seuilConsommation()}, la
+ * facture est connue exactement et il ne reste souvent qu'une stratgie par
+ * groupe.
+ */
+class EnumerationSymetrique {
+
+	private final Logement logement;
+	private final EvaluateurUtilite evaluateur;
+	private final int nombreUsagers;
+	private final int nombreStrategies;
+
+	/**
+	 * Les indices des usagers de chaque groupe.
+	 */
+	private final List<List<Integer>> groupes;
+
+	/**
+	 * repartition[g][s] est le nombre d'usagers du groupe g suivant la
+	 * stratgie s.
+	 */
+	private final int[][] repartition;
+
+	/**
+	 * autorisees[g][s] est faux si aucun usager du groupe g ne peut suivre la
+	 * stratgie s  l'quilibre, compte tenu des groupes dj rpartis.
+	 */
+	private final boolean[][] autorisees;
+
+	/**
+	 * Les consommations minimale et maximale des groupes g et suivants.
+	 */
+	private final double[] consommationMinSuivants;
+	private final double[] consommationMaxSuivants;
+
+	/**
+	 * Reoivent les utilits de dviation d'un usager.
+	 */
+	private final double[] utilites;
+	private final double[] utilitesHautes;
+
+	EnumerationSymetrique(Logement logement) {
+		this.logement = logement;
+		evaluateur = logement.evaluateur();
+		nombreUsagers = logement.nombreUsagers();
+		nombreStrategies = logement.nombreStrategies();
+
+		groupes = new ArrayList<>();
+		for (int i = 0; i < nombreUsagers; i++) {
+			List<Integer> groupe = null;
+			for (List<Integer> g : groupes)
+				if (logement.usager(g.get(0)).memeProfil(logement.usager(i)))
+					groupe = g;
+			if (groupe == null) {
+				groupe = new ArrayList<>();
+				groupes.add(groupe);
+			}
+			groupe.add(i);
+		}
+
+		repartition = new int[groupes.size()][nombreStrategies];
+		autorisees = new boolean[groupes.size()][nombreStrategies];
+		utilites = new double[nombreStrategies];
+		utilitesHautes = new double[nombreStrategies];
+
+		consommationMinSuivants = new double[groupes.size() + 1];
+		consommationMaxSuivants = new double[groupes.size() + 1];
+		for (int g = groupes.size() - 1; g >= 0; g--) {
+			int representant = groupes.get(g).get(0);
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int s = 0; s < nombreStrategies; s++) {
+				min = Math.min(min, evaluateur.consommation(representant, s));
+				max = Math.max(max, evaluateur.consommation(representant, s));
+			}
+			consommationMinSuivants[g] = consommationMinSuivants[g + 1] + groupes.get(g).size() * min;
+			consommationMaxSuivants[g] = consommationMaxSuivants[g + 1] + groupes.get(g).size() * max;
+		}
+	}
+
+	/**
+	 * @return le nombre de groupes d'usagers identiques.
+	 */
+	int nombreProfils() {
+		return groupes.size();
+	}
+
+	/**
+	 * @return le nombre de rpartitions que {@link #resoudre()} peut avoir 
+	 *         tester.
+	 */
+	double nombreRepartitions() {
+		double n = 1;
+		for (List<Integer> g : groupes)
+			n *= combinaisons(g.size() + nombreStrategies - 1, nombreStrategies - 1);
+		return n;
+	}
+
+	/**
+	 * @return le vecteur de stratgies d'un Nash pur, null s'il n'en existe
+	 *         pas ou si le dlai de l'analyse est dpass.
+	 */
+	int[] resoudre() {
+		return enumerer(0, 0, groupes.isEmpty() ? 0 : groupes.get(0).size(), 0);
+	}
+
+	/**
+	 * Essaie toutes les faons de rpartir les usagers restants du groupe g
+	 * entre les stratgies s et suivantes, puis les groupes suivants.
+	 * 
+	 * @param restants
+	 *            le nombre d'usagers du groupe g qui n'ont pas encore de
+	 *            stratgie.
+	 * @param consommation
+	 *            la consommation des usagers dj rpartis.
+	 * @return le premier Nash pur trouv, null s'il n'y en a pas.
+	 */
+	private int[] enumerer(int g, int s, int restants, double consommation) {
+		if (g == groupes.size())
+			return tester(consommation);
+
+		int representant = groupes.get(g).get(0);
+		if (s == 0)
+			elaguer(g, consommation);
+
+		// Les usagers restants prennent tous la dernire stratgie, puis on
+		// passe au groupe suivant.
+		if (s == nombreStrategies - 1) {
+			if (restants > 0 && !autorisees[g][s])
+				return null;
+			repartition[g][s] = restants;
+			return enumerer(g + 1, 0, g + 1 < groupes.size() ? groupes.get(g + 1).size() : 0,
+					consommation + restants * evaluateur.consommation(representant, s));
+		}
+
+		for (int n = 0; n <= (autorisees[g][s] ? restants : 0); n++) {
+			if (logement.horsDelai())
+				return null;
+			repartition[g][s] = n;
+			int[] nash = enumerer(g, s + 1, restants - n,
+					consommation + n * evaluateur.consommation(representant, s));
+			if (nash != null)
+				return nash;
+		}
+		return null;
+	}
+
+	/**
+	 * Dtermine les stratgies que les usagers du groupe g peuvent suivre 
+	 * l'quilibre, sachant que les groupes prcdents consomment consommation.
+	 */
+	private void elaguer(int g, double consommation) {
+		int representant = groupes.get(g).get(0);
+		double factureBasse = logement.facture(consommation + consommationMinSuivants[g]);
+		double factureHaute = logement.facture(consommation + consommationMaxSuivants[g]);
+
+		for (int s = 0; s < nombreStrategies; s++) {
+			double utiliteBasse = evaluateur.utilite(representant, s, factureBasse);
+			double utiliteHaute = evaluateur.utilite(representant, s, factureHaute);
+			evaluateur.utilitesDeviation(representant, s, factureBasse, utilites);
+			evaluateur.utilitesDeviation(representant, s, factureHaute, utilitesHautes);
+
+			// On garde une petite marge pour ne jamais exclure un quilibre 
+			// cause d'une erreur d'arrondi.
+			autorisees[g][s] = true;
+			for (int k = 0; k < nombreStrategies; k++)
+				if (utiliteBasse < utilites[k] - 1e-12 && utiliteHaute < utilitesHautes[k] - 1e-12)
+					autorisees[g][s] = false;
+		}
+	}
+
+	/**
+	 * Teste si la rpartition courante est un Nash pur : pour chaque groupe
+	 * et chaque stratgie suivie par au moins un de ses usagers, aucune autre
+	 * stratgie ne doit tre strictement meilleure.
+	 */
+	private int[] tester(double consommation) {
+		double facture = logement.facture(consommation);
+
+		for (int g = 0; g < groupes.size(); g++) {
+			int representant = groupes.get(g).get(0);
+			for (int s = 0; s < nombreStrategies; s++) {
+				if (repartition[g][s] == 0)
+					continue;
+
+				// On compare s aux autres stratgies avec son utilit calcule
+				// comme une dviation vers elle-mme, pour que les deux cts
+				// portent le mme arrondi.
+				evaluateur.utilitesDeviation(representant, s, facture, utilites);
+				for (int k = 0; k < nombreStrategies; k++)
+					if (utilites[s] < utilites[k])
+						return null;
+			}
+		}
+
+		// On attribue les stratgies aux usagers de chaque groupe, puis on
+		// confirme avec la facture calcule usager par usager.
+		int[] strategies = new int[nombreUsagers];
+		for (int g = 0; g < groupes.size(); g++) {
+			int i = 0;
+			for (int s = 0; s < nombreStrategies; s++)
+				for (int n = 0; n < repartition[g][s]; n++)
+					strategies[groupes.get(g).get(i++)] = s;
+		}
+		return logement.testMixedNash(strategies) ? strategies : null;
+	}
+
+	private static double combinaisons(int n, int p) {
+		double c = 1;
+		for (int i = 1; i <= p; i++)
+			c = c * (n - p + i) / i;
+		return c;
+	}
+}
@@ -0,0 +1,319 @@
+package logement;
+
+import java.util.stream.IntStream;
+
+import usager.Usager;
+
+/**
+ * Calcule par blocs les utilits de tous les usagers pour toutes leurs
+ * stratgies, face  une mme facture.
+ * 
+ * Dans {@link Usager#utiliteTotale(double, double, double)}, seul le terme
+ * du prix du chauffage dpend de la facture : le confort et la rduction ne
+ * dpendent que de la stratgie. On les calcule donc une fois pour toutes,
+ * et on range tous les termes en colonnes, une case par couple (usager,
+ * stratgie), l'usager i et la stratgie k tant  la case i *
+ * nombreStrategies + k. valuer une utilit ne cote plus alors qu'une
+ * exponentielle, dans des boucles simples sur des tableaux contigus.
+ * 
+ * Les termes sont additionns dans le mme ordre que dans
+ * {@link Usager#utiliteTotale(double, double, double)} : les rsultats sont
+ * exactement les mmes.
+ * 
+ * L'valuateur n'est valable que tant que la temprature extrieure, la
+ * politique et la courbe de rduction du logement ne changent pas. Il peut
+ * ensuite tre recalcul par {@link #calculer(Logement)} sans rallouer ses
+ * tableaux, ou par {@link #calculerReductions(Logement)} si seules la
+ * politique ou la courbe ont chang.
+ * 
+ * Les termes qui ne dpendent pas de la politique peuvent tre partags, en
+ * lecture seule, par les valuateurs de plusieurs copies d'un mme logement
+ * analyses en parallle, voir
+ * {@link #EvaluateurUtilite(EvaluateurUtilite, Logement)}.
+ */
+class EvaluateurUtilite {
+
+	/**
+	 * Le nombre d'usagers  partir duquel {@link #regret(int[], double)} se
+	 * rpartit entre plusieurs processeurs.
+	 */
+	private static final int SEUIL_PARALLELE = 1000;
+
+	final int nombreUsagers;
+	final int nombreStrategies;
+
+	/**
+	 * La temprature, la rduction et la consommation de chaque couple
+	 * (usager, stratgie).
+	 */
+	private final double[] temperature;
+	private final double[] reduction;
+	private final double[] consommation;
+	/**
+	 * consommation / nombreUsagers, c'est--dire la part de la facture de
+	 * chacun due  ce couple.
+	 */
+	private final double[] partFacture;
+	/**
+	 * Les termes de confort et de rduction, pondrs.
+	 */
+	private final double[] confort;
+	private final double[] transports;
+	/**
+	 * Le poids du prix du chauffage de chaque usager.
+	 */
+	private final double[] poidsPrix;
+	/**
+	 * Vrai si temperature, consommation, partFacture, confort et poidsPrix
+	 * appartiennent  un autre valuateur : ils ne doivent alors pas tre
+	 * modifis.
+	 */
+	final boolean partage;
+	/**
+	 * Les tempratures et rductions des stratgies d'un usager, le temps de
+	 * les calculer.
+	 */
+	private final double[] temperatures;
+	private final double[] reductions;
+
+	EvaluateurUtilite(Logement logement) {
+		nombreUsagers = logement.nombreUsagers();
+		nombreStrategies = logement.nombreStrategies();
+
+		int n = nombreUsagers * nombreStrategies;
+		temperature = new double[n];
+		reduction = new double[n];
+		consommation = new double[n];
+		partFacture = new double[n];
+		confort = new double[n];
+		transports = new double[n];
+		poidsPrix = new double[nombreUsagers];
+		temperatures = new double[nombreStrategies];
+		reductions = new double[nombreStrategies];
+		partage = false;
+
+		calculer(logement);
+	}
+
+	/**
+	 * Cre un valuateur pour une copie du logement de commun qui n'en
+	 * diffre que par la politique ou la courbe de rduction. Les termes qui
+	 * n'en dpendent pas sont ceux de commun, qui ne doit plus tre recalcul
+	 * tant que cet valuateur sert.
+	 */
+	EvaluateurUtilite(EvaluateurUtilite commun, Logement logement) {
+		nombreUsagers = commun.nombreUsagers;
+		nombreStrategies = commun.nombreStrategies;
+
+		int n = nombreUsagers * nombreStrategies;
+		temperature = commun.temperature;
+		consommation = commun.consommation;
+		partFacture = commun.partFacture;
+		confort = commun.confort;
+		poidsPrix = commun.poidsPrix;
+		reduction = new double[n];
+		transports = new double[n];
+		temperatures = new double[nombreStrategies];
+		reductions = new double[nombreStrategies];
+		partage = true;
+
+		calculerReductions(logement);
+	}
+
+	/**
+	 * Recalcule tous les termes pour la situation actuelle du logement, qui
+	 * doit avoir le mme nombre d'usagers et de stratgies.
+	 */
+	void calculer(Logement logement) {
+		if (partage)
+			throw new IllegalStateException("Les termes de cet valuateur sont partags.");
+		for (int i = 0; i < nombreUsagers; i++) {
+			Usager u = logement.usager(i);
+			poidsPrix[i] = u.poidsPrixChauffage();
+
+			for (int k = 0; k < nombreStrategies; k++)
+				temperatures[k] = logement.strategieToTemperature(k, u);
+			logement.temperaturesToReductions(temperatures, reductions);
+
+			for (int k = 0, c = i * nombreStrategies; k < nombreStrategies; k++, c++) {
+				temperature[c] = temperatures[k];
+				reduction[c] = reductions[k];
+				consommation[c] = logement.consommationIndividuelle(temperatures[k]);
+				partFacture[c] = consommation[c] / nombreUsagers;
+				confort[c] = u.utiliteConfortPonderee(temperatures[k]);
+				transports[c] = u.utiliteReductionPonderee(reductions[k]);
+			}
+		}
+	}
+
+	/**
+	 * Comme {@link #calculerReductions(Logement)}, aprs une retouche des
+	 * paliers premier  dernier de la courbe de rduction : seuls les couples
+	 * rangs dans ces paliers par index sont recalculs.
+	 * 
+	 * @param modifies
+	 *            reoit vrai pour chaque usager dont au moins un terme a
+	 *            chang.
+	 */
+	void calculerReductions(Logement logement, IndexPaliers index, int premier, int dernier, boolean[] modifies) {
+		for (int j = index.debut(premier); j < index.debut(dernier + 1); j++) {
+			int c = index.couple(j);
+			int i = c / nombreStrategies;
+			double r = logement.temperatureToReduction(temperature[c]);
+			if (r == reduction[c])
+				continue;
+			reduction[c] = r;
+			transports[c] = logement.usager(i).utiliteReductionPonderee(r);
+			modifies[i] = true;
+		}
+	}
+
+	/**
+	 * Recalcule les rductions et les termes de rduction aprs un
+	 * changement de politique ou de courbe de rduction.
+	 */
+	void calculerReductions(Logement logement) {
+		for (int i = 0; i < nombreUsagers; i++) {
+			Usager u = logement.usager(i);
+			int ligne = i * nombreStrategies;
+			System.arraycopy(temperature, ligne, temperatures, 0, nombreStrategies);
+			logement.temperaturesToReductions(temperatures, reductions);
+
+			for (int k = 0, c = ligne; k < nombreStrategies; k++, c++) {
+				reduction[c] = reductions[k];
+				transports[c] = u.utiliteReductionPonderee(reductions[k]);
+			}
+		}
+	}
+
+	/**
+	 * @return l'utilit de l'usager i suivant la stratgie k et payant
+	 *         facture.
+	 */
+	double utilite(int i, int k, double facture) {
+		int c = i * nombreStrategies + k;
+		return confort[c] + Math.exp(-facture / Usager.RICHESSE) * poidsPrix[i] + transports[c];
+	}
+
+	/**
+	 * Calcule, pour chaque usager de debut (inclus)  fin (exclu) et chacune
+	 * de ses stratgies k, l'utilit qu'il obtiendrait en passant seul de sa
+	 * stratgie actuelle  k. Comme dans
+	 * {@link Logement#meilleureReponse(int[], int)}, sa facture est alors
+	 * facture - partFacture(actuelle) + partFacture(k).
+	 * 
+	 * @param strategies
+	 *            la stratgie actuelle de chaque usager.
+	 * @param facture
+	 *            la facture correspondant  strategies.
+	 * @param resultat
+	 *            reoit l'utilit du couple (debut + j, k)  la case j *
+	 *            nombreStrategies + k.
+	 */
+	void utilitesDeviation(int debut, int fin, int[] strategies, double facture, double[] resultat) {
+		for (int i = debut, r = 0; i < fin; i++) {
+			int ligne = i * nombreStrategies;
+			double base = facture - partFacture[ligne + strategies[i]];
+			double poids = poidsPrix[i];
+			for (int c = ligne; c < ligne + nombreStrategies; c++, r++)
+				resultat[r] = confort[c] + Math.exp(-(base + partFacture[c]) / Usager.RICHESSE) * poids
+						+ transports[c];
+		}
+	}
+
+	/**
+	 * Comme {@link #utilitesDeviation(int, int, int[], double, double[])} pour
+	 * le seul usager i, qui suit la stratgie actuelle.
+	 * 
+	 * @param resultat
+	 *            reoit l'utilit de chaque stratgie k  la case k.
+	 */
+	void utilitesDeviation(int i, int actuelle, double facture, double[] resultat) {
+		int ligne = i * nombreStrategies;
+		double base = facture - partFacture[ligne + actuelle];
+		double poids = poidsPrix[i];
+		for (int k = 0, c = ligne; k < nombreStrategies; k++, c++)
+			resultat[k] = confort[c] + Math.exp(-(base + partFacture[c]) / Usager.RICHESSE) * poids + transports[c];
+	}
+
+	/**
+	 * @return l'utilit que l'usager i obtiendrait en passant seul de la
+	 *         stratgie actuelle  k, comme dans
+	 *         {@link #utilitesDeviation(int, int, double, double[])}.
+	 */
+	double utiliteDeviation(int i, int actuelle, int k, double facture) {
+		int ligne = i * nombreStrategies;
+		int c = ligne + k;
+		return confort[c] + Math.exp(-(facture - partFacture[ligne + actuelle] + partFacture[c]) / Usager.RICHESSE)
+				* poidsPrix[i] + transports[c];
+	}
+
+	/**
+	 * @return la somme des termes de l'utilit de l'usager i suivant la
+	 *         stratgie k qui ne dpendent pas de la facture.
+	 */
+	double utiliteHorsFacture(int i, int k) {
+		int c = i * nombreStrategies + k;
+		return confort[c] + transports[c];
+	}
+
+	/**
+	 * @return le plus grand gain que l'usager i, qui suit la stratgie
+	 *         actuelle, obtiendrait en passant seul  une autre stratgie,
+	 *         comme dans
+	 *         {@link #utilitesDeviation(int, int, double, double[])}. 0 s'il
+	 *         ne gagne rien  en changer. L'utilit de la stratgie actuelle
+	 *         est elle aussi calcule comme une dviation, pour que les deux
+	 *         termes de la diffrence portent le mme arrondi.
+	 */
+	double gainMaximal(int i, int actuelle, double facture) {
+		int ligne = i * nombreStrategies;
+		double base = facture - partFacture[ligne + actuelle];
+		double poids = poidsPrix[i];
+		double actuelleUtilite = Double.NaN;
+		double meilleure = Double.NEGATIVE_INFINITY;
+		for (int k = 0, c = ligne; k < nombreStrategies; k++, c++) {
+			double u = confort[c] + Math.exp(-(base + partFacture[c]) / Usager.RICHESSE) * poids + transports[c];
+			if (k == actuelle)
+				actuelleUtilite = u;
+			else
+				meilleure = Math.max(meilleure, u);
+		}
+		return Math.max(0, meilleure - actuelleUtilite);
+	}
+
+	/**
+	 * @param strategies
+	 *            la stratgie de chaque usager.
+	 * @param facture
+	 *            la facture correspondant  strategies.
+	 * @return le plus grand {@link #gainMaximal(int, int, double)} parmi les
+	 *         usagers, calculs en parallle dans les grands logements.
+	 */
+	double regret(int[] strategies, double facture) {
+		IntStream usagers = IntStream.range(0, nombreUsagers);
+		if (nombreUsagers >= SEUIL_PARALLELE)
+			usagers = usagers.parallel();
+		return usagers.mapToDouble(i -> gainMaximal(i, strategies[i], facture)).max().orElse(0);
+	}
+
+	double temperature(int i, int k) {
+		return temperature[i * nombreStrategies + k];
+	}
+
+	double reduction(int i, int k) {
+		return reduction[i * nombreStrategies + k];
+	}
+
+	double consommation(int i, int k) {
+		return consommation[i * nombreStrategies + k];
+	}
+
+	double partFacture(int i, int k) {
+		return partFacture[i * nombreStrategies + k];
+	}
+
+	double poidsPrix(int i) {
+		return poidsPrix[i];
+	}
+}
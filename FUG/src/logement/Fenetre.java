@@ -7,10 +7,14 @@ import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Paths;
 import java.text.ParseException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.imageio.ImageIO;
 import javax.swing.JButton;
@@ -19,6 +23,7 @@ import javax.swing.JFormattedTextField;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 /**
  * Une fentre permettant de lancer une simulation avec des paramtres choisis.
@@ -36,16 +41,28 @@ public class Fenetre {
 	JFormattedTextField nombrePollueurs;
 	JFormattedTextField nombreVoyageurs;
 	JFormattedTextField nombreFous;
+	JFormattedTextField graine;
 	JComboBox<Logement.Politique> politique;
 	JComboBox<Logement.Methode> methode;
 
 	Logement l;
 
+	/**
+	 * Les analyses dj faites, y compris lors des excutions prcdentes.
+	 */
+	CacheEquilibres cache;
+
 	public Fenetre(PrintStream sortie) {
 		this.sortie = sortie;
 		frame = new JFrame();
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
+		try {
+			cache = new CacheEquilibres(Paths.get("cache_equilibres"), 1000);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
 		// On initialise tous les champs du formulaire
 
 		temperatureExterieure = new JFormattedTextField(12.5);
@@ -54,11 +71,14 @@ public class Fenetre {
 		nombrePollueurs = new JFormattedTextField(10);
 		nombreVoyageurs = new JFormattedTextField(10);
 		nombreFous = new JFormattedTextField(0);
+		graine = new JFormattedTextField(0L);
 
 		politique = new JComboBox<>(new Logement.Politique[] { Logement.Politique.MONTECARLO, Logement.Politique.TEST,
 				Logement.Politique.AUCUNEREDUCTION });
 		methode = new JComboBox<>(new Logement.Methode[] { Logement.Methode.MEILLEUREREPONSE,
-				Logement.Methode.BRUTEFORCE, Logement.Methode.LRI });
+				Logement.Methode.BRUTEFORCE, Logement.Methode.LRI, Logement.Methode.MEILLEUREREPONSEINCREMENTALE,
+				Logement.Methode.CONTINU, Logement.Methode.SYMETRIE, Logement.Methode.PROGRAMMATIONDYNAMIQUE,
+				Logement.Methode.MULTIRESOLUTION, Logement.Methode.AUTO });
 
 		// On les met dans la fentre
 
@@ -82,6 +102,9 @@ public class Fenetre {
 		frame.add(new JLabel("nombre de fous : "));
 		frame.add(nombreFous, BorderLayout.CENTER);
 
+		frame.add(new JLabel("graine alatoire : "));
+		frame.add(graine, BorderLayout.CENTER);
+
 		frame.add(new JLabel("politique de rduction : "));
 		frame.add(politique, BorderLayout.CENTER);
 
@@ -106,6 +129,7 @@ public class Fenetre {
 					nombrePollueurs.commitEdit();
 					nombreVoyageurs.commitEdit();
 					nombreFous.commitEdit();
+					graine.commitEdit();
 				} catch (ParseException e1) {
 					e1.printStackTrace();
 				}
@@ -115,37 +139,107 @@ public class Fenetre {
 
 				l = new Logement((int) nombreDeStrategies.getValue(), (int) nombreEcolos.getValue(),
 						(int) nombrePollueurs.getValue(), (int) nombreVoyageurs.getValue(),
-						(int) nombreFous.getValue());
+						(int) nombreFous.getValue(), new SourceAleatoire(((Number) graine.getValue()).longValue()));
 
 				l.setPolitique((Logement.Politique) politique.getSelectedItem());
 				l.setTemperatureExterieure((double) temperatureExterieure.getValue());
 				l.setMethode((Logement.Methode) methode.getSelectedItem());
+				l.setJournal(sortie);
+				l.setCache(cache);
 
-				// On lance la simulation
+				// On lance la simulation dans sa propre tche, pour que la
+				// fentre reste ractive. Le bouton reste dsactiv jusqu'
+				// la fin de l'analyse, pour que deux analyses n'crivent pas
+				// en mme temps dans la sortie.
 
-				if (l.politique() == Logement.Politique.MONTECARLO) {
-					l.monteCarlo(10, 10, sortie);
+				ok.setEnabled(false);
+				Logement analyse = l;
+				if (analyse.politique() == Logement.Politique.MONTECARLO) {
 
 					// Si on cherche une courbe de rduction en suivant la
-					// mthode de Monte-Carlo, on trace cette courbe aprs
-					// l'avoir trouve.
+					// mthode de Monte-Carlo, on trace la meilleure courbe
+					// trouve au fur et  mesure de la recherche. Fermer la
+					// fentre arrte la recherche.
 
+					AtomicBoolean annulee = new AtomicBoolean();
 					JFrame dessin = new JFrame();
-					JCanvas canvas = new JCanvas(l);
+					JCanvas canvas = new JCanvas();
 					canvas.setPreferredSize(new Dimension(largeurCanvas, hauteurCanvas));
 					dessin.add(canvas);
 					dessin.pack();
 					dessin.setVisible(true);
 
+					Abonne<Amelioration> suivi = new Abonne<Amelioration>() {
+						private Abonnement abonnement;
+
+						@Override
+						public void abonnement(Abonnement a) {
+							abonnement = a;
+							dessin.addWindowListener(new WindowAdapter() {
+								@Override
+								public void windowClosing(WindowEvent e) {
+									annulee.set(true);
+									a.annuler();
+								}
+							});
+							a.demander(1);
+						}
+
+						@Override
+						public void suivant(Amelioration a) {
+							SwingUtilities.invokeLater(() -> {
+								canvas.setCourbe(a.courbe());
+								dessin.setTitle("cot " + a.cout() + " aprs " + a.evaluations() + " courbes");
+
+								// On ne demande la suivante qu'une fois
+								// celle-ci affiche.
+								abonnement.demander(1);
+							});
+						}
+
+						@Override
+						public void termine() {
+						}
+
+						@Override
+						public void erreur(Throwable e) {
+							e.printStackTrace();
+						}
+					};
+					lancer(() -> {
+						analyse.monteCarlo(10, 10, sortie, suivi);
+
+						// Une recherche arrte en fermant la fentre n'est
+						// pas compare.
+						if (!annulee.get())
+							analyse.comparerSansReduction(sortie);
+					});
+
 				} else
-					l.analyse();
+					lancer(() -> {
+						analyse.analyse();
 
-				// On crit dans la console les comportements de chaque
-				// usager lorsqu'il y a une rduction et lorsqu'il n'y en a pas
-				// et les gains obtenus par le gestionnaire grce  la
-				// rduction.
+						// On crit dans la console les comportements de
+						// chaque usager lorsqu'il y a une rduction et
+						// lorsqu'il n'y en a pas et les gains obtenus par le
+						// gestionnaire grce  la rduction.
 
-				l.comparerSansReduction(sortie);
+						analyse.comparerSansReduction(sortie);
+					});
+			}
+
+			/**
+			 * Lance l'analyse dans sa propre tche, et ractive le bouton
+			 * lorsqu'elle se termine, mme en cas d'chec.
+			 */
+			private void lancer(Runnable analyse) {
+				new Thread(() -> {
+					try {
+						analyse.run();
+					} finally {
+						SwingUtilities.invokeLater(() -> ok.setEnabled(true));
+					}
+				}).start();
 			}
 		});
 
@@ -162,10 +256,17 @@ public class Fenetre {
 	 */
 	public class JCanvas extends JPanel {
 		private static final long serialVersionUID = 1L;
-		Logement l;
-
-		public JCanvas(Logement l) {
-			this.l = l;
+		/**
+		 * La courbe dessine, null tant qu'il n'y en a pas.
+		 */
+		CourbeReduction courbe;
+
+		/**
+		 * Remplace la courbe dessine et redessine la fentre.
+		 */
+		public void setCourbe(CourbeReduction courbe) {
+			this.courbe = courbe;
+			repaint();
 		}
 
 		@Override
@@ -178,7 +279,8 @@ public class Fenetre {
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
-			l.drawCourbeReduction(g, 130, 62, Color.RED, largeurCanvas, hauteurCanvas);
+			if (courbe != null)
+				courbe.dessiner(g, 130, 62, Color.RED, largeurCanvas, hauteurCanvas);
 		}
 
 	}
@@ -0,0 +1,129 @@
+package logement;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Les courbes de rduction non domines trouves par
+ * {@link Logement#frontierePareto(int, int, int)}, pour trois objectifs : un
+ * cot propritaire faible, une consommation totale faible et un confort
+ * moyen lev.
+ * 
+ * Les points sont rangs par cot croissant. Seuls les points de cot
+ * infrieur ou gal peuvent dominer un nouveau point, et seuls ceux de cot
+ * suprieur ou gal peuvent tre domins par lui : une recherche
+ * dichotomique limite les comparaisons  la bonne moiti de l'archive.
+ */
+public class FrontierePareto {
+
+	/**
+	 * Le rsultat de l'analyse du logement avec une courbe de rduction.
+	 */
+	public static class Point {
+		public final double cout;
+		public final double consommation;
+		public final double confort;
+		/**
+		 * Les paramtres de la courbe, voir
+		 * {@link Logement#setCourbeReduction(double, long)}.
+		 */
+		public final double alpha;
+		public final long graine;
+
+		public Point(double cout, double consommation, double confort, double alpha, long graine) {
+			this.cout = cout;
+			this.consommation = consommation;
+			this.confort = confort;
+			this.alpha = alpha;
+			this.graine = graine;
+		}
+
+		/**
+		 * @return vrai si ce point est au moins aussi bon que p sur les trois
+		 *         objectifs et meilleur sur l'un d'eux.
+		 */
+		public boolean domine(Point p) {
+			return cout <= p.cout && consommation <= p.consommation && confort >= p.confort
+					&& (cout < p.cout || consommation < p.consommation || confort > p.confort);
+		}
+
+		@Override
+		public String toString() {
+			return cout + " " + consommation + " " + confort + " " + alpha + " " + graine;
+		}
+	}
+
+	private final List<Point> points = new ArrayList<>();
+
+	/**
+	 * Ajoute un point s'il n'est domin par aucun autre, et retire ceux qu'il
+	 * domine.
+	 * 
+	 * @return vrai si le point a t ajout.
+	 */
+	public boolean ajouter(Point p) {
+		// Premier point de cot strictement suprieur  celui de p.
+		int bas = 0;
+		int haut = points.size();
+		while (bas < haut) {
+			int milieu = (bas + haut) >>> 1;
+			if (points.get(milieu).cout <= p.cout)
+				bas = milieu + 1;
+			else
+				haut = milieu;
+		}
+
+		for (int i = 0; i < bas; i++)
+			if (points.get(i).domine(p) || egal(points.get(i), p))
+				return false;
+
+		// Les points de mme cot que p se trouvent juste avant bas.
+		int debut = bas;
+		while (debut > 0 && points.get(debut - 1).cout == p.cout)
+			debut--;
+		for (int i = points.size() - 1; i >= debut; i--)
+			if (p.domine(points.get(i))) {
+				points.remove(i);
+				if (i < bas)
+					bas--;
+			}
+
+		points.add(bas, p);
+		return true;
+	}
+
+	/**
+	 * Ajoute tous les points d'une autre frontire.
+	 */
+	public void fusionner(FrontierePareto autre) {
+		for (Point p : autre.points)
+			ajouter(p);
+	}
+
+	/**
+	 * @return les points de la frontire, par cot croissant.
+	 */
+	public List<Point> points() {
+		return Collections.unmodifiableList(points);
+	}
+
+	/**
+	 * crit la frontire dans un fichier texte, un point par ligne dans le
+	 * format : [cot] [consommation] [confort] [alpha] [graine]
+	 */
+	public void exporter(String fichier) {
+		try (PrintWriter pw = new PrintWriter(fichier)) {
+			for (Point p : points)
+				pw.println(p);
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static boolean egal(Point a, Point b) {
+		return a.cout == b.cout && a.consommation == b.consommation && a.confort == b.confort;
+	}
+}
@@ -0,0 +1,62 @@
+package logement;
+
+/**
+ * Pour chaque palier d'une courbe de rduction, les couples (usager,
+ * stratgie) dont la temprature tombe dans ce palier, rangs comme dans
+ * {@link EvaluateurUtilite}.
+ * 
+ * Retoucher les paliers p  q de la courbe ne change que la rduction de
+ * ces couples, qui sont rangs d'un bloc : ceux du palier p se trouvent aux
+ * rangs {@link #debut(int)} p inclus  debut(p + 1) exclu. L'index est
+ * construit par un tri par dnombrement, en O(m * n + r) pour m usagers, n
+ * stratgies et r paliers.
+ */
+class IndexPaliers {
+
+	/**
+	 * La rsolution de la courbe indexe.
+	 */
+	final int resolution;
+
+	/**
+	 * debuts[p] est le rang du premier couple du palier p, debuts[resolution]
+	 * le nombre de couples.
+	 */
+	private final int[] debuts;
+	private final int[] couples;
+
+	IndexPaliers(EvaluateurUtilite evaluateur, CourbeReduction courbe) {
+		resolution = courbe.resolution();
+		int n = evaluateur.nombreUsagers * evaluateur.nombreStrategies;
+		int[] paliers = new int[n];
+		debuts = new int[resolution + 1];
+		couples = new int[n];
+
+		for (int i = 0, c = 0; i < evaluateur.nombreUsagers; i++)
+			for (int k = 0; k < evaluateur.nombreStrategies; k++, c++) {
+				paliers[c] = courbe.palier(evaluateur.temperature(i, k));
+				debuts[paliers[c] + 1]++;
+			}
+		for (int p = 0; p < resolution; p++)
+			debuts[p + 1] += debuts[p];
+
+		int[] suivant = debuts.clone();
+		for (int c = 0; c < n; c++)
+			couples[suivant[paliers[c]]++] = c;
+	}
+
+	/**
+	 * @return le rang du premier couple du palier p, entre 0 et
+	 *         {@link #resolution} inclus.
+	 */
+	int debut(int p) {
+		return debuts[p];
+	}
+
+	/**
+	 * @return l'indice, dans {@link EvaluateurUtilite}, du couple de rang j.
+	 */
+	int couple(int j) {
+		return couples[j];
+	}
+}
@@ -2,10 +2,28 @@ package logement;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
-import java.util.Random;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import usager.Ecolo;
 import usager.Fou;
@@ -53,7 +71,58 @@ public class Logement {
 		/**
 		 * Linear Reward Inaction cf. internet. Lent mais amliorable.
 		 */
-		LRI
+		LRI,
+		/**
+		 * Comme {@link #MEILLEUREREPONSE}, mais les usagers changent de
+		 * stratgie un par un et on ne rexamine que ceux dont la meilleure
+		 * rponse a pu changer depuis leur dernier examen, voir
+		 * {@link MeilleureReponseIncrementale}. Trs rapide sur les grands
+		 * logements.
+		 */
+		MEILLEUREREPONSEINCREMENTALE,
+		/**
+		 * Les usagers choisissent librement leur temprature entre
+		 * {@link Usager#TEMPERATURE_MINIMALE} et leur temprature idale au
+		 * lieu de se limiter  {@link #nombreStrategies} valeurs, voir
+		 * {@link MeilleureReponseContinue}. Le temps de calcul ne dpend pas
+		 * du nombre de stratgies, et ne crot qu'avec le logarithme de la
+		 * prcision voulue.
+		 */
+		CONTINU,
+		/**
+		 * Comme {@link #BRUTEFORCE}, mais on numre seulement combien
+		 * d'usagers de chaque profil choisissent chaque stratgie, voir
+		 * {@link EnumerationSymetrique}. Exact, et rapide lorsque le logement
+		 * compte peu de profils diffrents.
+		 */
+		SYMETRIE,
+		/**
+		 * Exact comme {@link #BRUTEFORCE} : on dtermine pour chaque stratgie
+		 * de chaque usager les consommations totales pour lesquelles elle est
+		 * une meilleure rponse, puis on cherche usager par usager une
+		 * combinaison de ces stratgies qui atteint une telle consommation,
+		 * voir {@link ProgrammationDynamique}. Polynomial en le nombre
+		 * d'usagers, de stratgies et de consommations totales distinctes.
+		 */
+		PROGRAMMATIONDYNAMIQUE,
+		/**
+		 * Comme {@link #MEILLEUREREPONSE}, mais on cherche d'abord un
+		 * quilibre parmi quelques tempratures par usager, puis autour de
+		 * celles-ci avec un pas de plus en plus fin, voir
+		 * {@link RaffinementGrille}. Le temps de calcul dpend peu du nombre
+		 * de stratgies.
+		 */
+		MULTIRESOLUTION,
+		/**
+		 * On estime le cot de chaque mthode  partir du nombre d'usagers,
+		 * du nombre de stratgies et du nombre de profils diffrents, et on
+		 * les essaie de la plus rapide  la plus lente, voir
+		 * {@link ChoixMethode}. Chacune dispose d'un temps proportionnel  son
+		 * cot estim ; si elle choue ou le dpasse, on passe  la suivante.
+		 * Les raisons du choix sont crites dans le journal, voir
+		 * {@link Logement#setJournal(PrintStream)}.
+		 */
+		AUTO
 	}
 
 	/**
@@ -78,14 +147,17 @@ public class Logement {
 	/**
 	 * dans un algorithme LRI, si pour chaque usager, il existe une stratgie de
 	 * probabilit proche de 1 (distance < LRI_PRECISION), on teste s'il s'agit
-	 * d'un Nash pur potentiel.
+	 * d'un Nash pur potentiel. Chaque analyse part de cette prcision et
+	 * l'affine si ncessaire.
 	 */
-	private static double LRI_PRECISION = 0.001;
+	private static final double LRI_PRECISION = 0.001;
 	/**
 	 * Lorsqu'on cherche la meilleure fonction pour attribuer des rductions, on
-	 * approxime en faisant une fonction avec PAS_COURBE_REDUCTION paliers.
+	 * approxime en faisant une fonction avec PAS_COURBE_REDUCTION paliers, sauf
+	 * si une autre rsolution est choisie par
+	 * {@link #setResolutionCourbe(int)}.
 	 */
-	private static final int PAS_COURBE_REDUCTION = 100;
+	static final int PAS_COURBE_REDUCTION = 100;
 	/**
 	 * Lorsqu'on cherche la meilleure fonction pour attribuer des rductions, on
 	 * choisi GRANULARITE_COURBE_REDUCTION points auxquelles la drive de la
@@ -93,22 +165,50 @@ public class Logement {
 	 * meilleure courbe peut tre prcise mais lente.
 	 */
 	private static final int GRANULARITE_COURBE_REDUCTION = 10;
+	/**
+	 * Lorsque LRI part d'un quilibre prcdent, chaque usager commence avec
+	 * cette probabilit de rejouer sa stratgie d'quilibre en plus de sa
+	 * part du tirage uniforme.
+	 */
+	private static final double POIDS_DEMARRAGE_LRI = 0.5;
+	/**
+	 * Le nombre de tours de {@link #meilleureReponse(int[], int)} dont on se
+	 * souvient pour dtecter un cycle. Un cycle plus long n'est pas dtect et
+	 * la recherche va jusqu'au bout de ses itrations.
+	 */
+	private static final int HISTORIQUE_MEILLEURE_REPONSE = 1024;
+	/**
+	 * Lorsque la meilleure rponse cycle, le nombre maximal de tours de LRI
+	 * effectus pour tenter d'en sortir, voir
+	 * {@link #equilibreMixte(List, SourceAleatoire)}.
+	 */
+	private static final int ITERATIONS_LRI_CYCLE = 10000;
+	/**
+	 * La version des mthodes de calcul, incluse dans chaque empreinte. 
+	 * augmenter ds qu'une modification change les rsultats, pour que le
+	 * {@link #cache} et les points de reprise ignorent les anciens.
+	 */
+	private static final int VERSION_CALCUL = 1;
 
 	/**
 	 * Si les usagers chauffent en moyenne de EDF C au-dessus de la temprature
 	 * extrieure, on atteint la limite  partir de laquelle le gestionnaire
 	 * doit payer plus pour le chauffage.
 	 */
-	private static double EDF = 3;
+	private static final double EDF = 3;
 	/**
 	 * Les usagers doivent payer cette somme plus un supplment s'ils chauffent
 	 * tous beaucoup.
 	 */
-	private static double PLANCHER = 2;
+	private static final double PLANCHER = 2;
 
 	private double temperatureExterieure;
 	private int nombreUsagers;
 	private int nombreStrategies;
+	private int nombreEcolos;
+	private int nombrePollueurs;
+	private int nombreVoyageurs;
+	private int nombreFous;
 	/**
 	 * Les usagers du logement.
 	 */
@@ -122,7 +222,165 @@ public class Logement {
 	 * Une approximation par palier de la fonction de rduction selon la
 	 * consommation individuelle.
 	 */
-	private double courbeReduction[];
+	private CourbeReduction courbeReduction;
+	/**
+	 * Le nombre de paliers de {@link #courbeReduction}.
+	 */
+	private int resolutionCourbe = PAS_COURBE_REDUCTION;
+	/**
+	 * Les termes des utilits qui ne dpendent pas de la facture, calculs
+	 * une fois pour toutes. null tant qu'ils n'ont pas servi.
+	 */
+	private EvaluateurUtilite evaluateur;
+	/**
+	 * Faux lorsque {@link #evaluateur} doit tre recalcul, c'est--dire aprs
+	 * un changement de temprature extrieure. Il est alors recalcul dans
+	 * les mmes tableaux, sauf s'il partage ceux d'un autre logement.
+	 */
+	private boolean evaluateurAJour;
+	/**
+	 * Faux lorsque seuls les termes de rduction de {@link #evaluateur}
+	 * doivent tre recalculs, aprs un changement de politique ou de courbe
+	 * de rduction.
+	 */
+	private boolean reductionsAJour;
+	/**
+	 * Reoit les utilits calcules par {@link #evaluateur}.
+	 */
+	private double[] tamponUtilites;
+	/**
+	 * Les paramtres avec lesquels {@link #courbeReduction} a t gnre,
+	 * voir {@link #setCourbeReduction(double, long)}. alphaCourbe vaut NaN
+	 * pour une courbe importe ou retouche par
+	 * {@link #modifierCourbe(int, int, double)}, graineCourbe tant alors son
+	 * empreinte.
+	 */
+	private double alphaCourbe;
+	private long graineCourbe;
+	/**
+	 * Le vecteur de stratgies pures correspondant au dernier Nash pur trouv
+	 * par {@link #analyse()}. null si aucun Nash pur n'a encore t trouv.
+	 */
+	private int[] dernierEquilibre;
+	/**
+	 * La recherche qui a trouv {@link #dernierEquilibre}, si c'est
+	 * {@link Methode#MEILLEUREREPONSEINCREMENTALE} et que {@link #evaluateur}
+	 * n'a pas t recalcul depuis. {@link #reanalyser()} la reprend aprs
+	 * une retouche de la courbe de rduction.
+	 */
+	private MeilleureReponseIncrementale moteurIncremental;
+	/**
+	 * Les usagers dont les utilits ont chang depuis que
+	 * {@link #moteurIncremental} a trouv son quilibre.
+	 */
+	private boolean[] usagersModifies;
+	/**
+	 * Les couples (usager, stratgie) de {@link #evaluateur} rangs par palier
+	 * de {@link #courbeReduction}. null s'il doit tre reconstruit.
+	 */
+	private IndexPaliers indexPaliers;
+	/**
+	 * La source de nombres alatoires du logement. Les tirages de LRI et de
+	 * Monte-Carlo, ainsi que les paramtres des usagers {@link Fou}, en
+	 * dpendent.
+	 */
+	private final SourceAleatoire alea;
+	/**
+	 * Le cache dans lequel on cherche les rsultats de {@link #analyse()} et
+	 * de {@link #monteCarlo(int, int, PrintStream)} avant de les calculer.
+	 * null si on n'utilise pas de cache.
+	 */
+	private CacheEquilibres cache;
+	/**
+	 * Si vrai, les recherches de courbe de rduction analysent chaque courbe en
+	 * partant de l'quilibre trouv pour la courbe prcdente plutt que de
+	 * zro. Un changement de courbe ne modifie gnralement les choix que de
+	 * quelques usagers.
+	 */
+	private boolean demarrageAChaud = true;
+	/**
+	 * Si vrai, {@link #monteCarlo(int, int, PrintStream)} estime le cot de
+	 * chaque courbe par un {@link Substitut} avant de l'analyser, et carte
+	 * celles qui n'ont aucune chance de battre la meilleure.
+	 */
+	private boolean substitut;
+	/**
+	 * Une courbe relue par {@link #chargerCourbe(Path)}, que les recherches
+	 * de courbe considrent avant de tirer les leurs. null s'il n'y en a pas.
+	 */
+	private CourbeReduction courbeImportee;
+	/**
+	 * Le fichier dans lequel les recherches longues crivent rgulirement de
+	 * quoi les reprendre, voir {@link #setReprise(Path, long)}. null pour ne
+	 * pas en crire.
+	 */
+	private Path fichierReprise;
+	/**
+	 * Le temps entre deux points de reprise, en millisecondes, et l'instant
+	 * du prochain.
+	 */
+	private long intervalleReprise;
+	private long prochaineReprise;
+	/**
+	 * Vrai pendant une analyse lance par {@link #analyse(int[])}, la seule
+	 * dont LRI crit des points de reprise : les analyses menes par une
+	 * recherche de courbe sont reprises avec elle.
+	 */
+	private boolean repriseLri;
+	/**
+	 * Une valeur alatoire par couple (usager, stratgie), indexe par usager *
+	 * {@link #nombreStrategies} + stratgie. L'empreinte d'un vecteur de
+	 * stratgies est le ou exclusif des valeurs de ses composantes, et se met
+	 *  jour en temps constant lorsqu'un usager change de stratgie. null tant
+	 * qu'elle n'a pas servi.
+	 */
+	private long[] zobrist;
+	/**
+	 * Les vecteurs de stratgies parcourus en boucle par le dernier appel 
+	 * {@link #meilleureReponse(int[], int)}, dans l'ordre. null si celui-ci n'a
+	 * pas dtect de cycle.
+	 */
+	private List<int[]> dernierCycle;
+	/**
+	 * Le vecteur de moindre regret rencontr par le dernier appel 
+	 * {@link #meilleureReponse(int[], int)}, et son regret.
+	 */
+	private int[] meilleurProfil;
+	private double meilleurRegret;
+	/**
+	 * Le regret vis par les analyses : on se contente d'un vecteur de
+	 * stratgies dans lequel aucun usager ne gagne plus de epsilon  changer
+	 * seul de stratgie. 0 pour un Nash pur exact.
+	 */
+	private double epsilon;
+	/**
+	 * Le temps accord  chaque analyse, en millisecondes. 0 pour ne pas
+	 * limiter la dure.
+	 */
+	private long delai;
+	/**
+	 * L'instant, au sens de System.nanoTime(), auquel l'analyse en cours doit
+	 * rendre son meilleur rsultat. Long.MAX_VALUE hors analyse ou sans
+	 * {@link #delai}.
+	 */
+	private long echeance = Long.MAX_VALUE;
+	/**
+	 * Le regret du rsultat de la dernire analyse, voir
+	 * {@link #regret(int[])}. NaN si les tempratures trouves ne
+	 * correspondent pas  un vecteur de stratgies pures et que le regret
+	 * n'a pas pu tre mesur.
+	 */
+	private double dernierRegret = Double.NaN;
+	/**
+	 * Reoit les raisons des choix de {@link Methode#AUTO}. null pour ne pas
+	 * les crire.
+	 */
+	private PrintStream journal;
+	/**
+	 * Les dernires estimations crites dans le {@link #journal}, pour ne pas
+	 * les rpter  chaque analyse d'une recherche de courbe.
+	 */
+	private String dernierChoix;
 
 	/**
 	 * @param nombreStrategies
@@ -132,8 +390,26 @@ public class Logement {
 	 * @param nombreVoyageurs
 	 */
 	public Logement(int nombreStrategies, int nombreEcolos, int nombrePollueurs, int nombreVoyageurs, int nombreFous) {
+		this(nombreStrategies, nombreEcolos, nombrePollueurs, nombreVoyageurs, nombreFous, new SourceAleatoire());
+	}
+
+	/**
+	 * @param nombreStrategies
+	 *            le nombre de stratgies de chaque usager.
+	 * @param nombreEcolos
+	 * @param nombrePollueurs
+	 * @param nombreVoyageurs
+	 * @param nombreFous
+	 * @param alea
+	 *            la source de nombres alatoires du logement. Deux logements
+	 *            crs avec des sources de mme graine se comportent de la mme
+	 *            faon.
+	 */
+	public Logement(int nombreStrategies, int nombreEcolos, int nombrePollueurs, int nombreVoyageurs, int nombreFous,
+			SourceAleatoire alea) {
 
 		// On initialise toutes les variables
+		this.alea = alea;
 		temperatureExterieure = 12.5;
 		politique = Politique.MONTECARLO;
 		methode = Methode.MEILLEUREREPONSE;
@@ -145,6 +421,10 @@ public class Logement {
 					.printStackTrace();
 
 		this.nombreStrategies = nombreStrategies;
+		this.nombreEcolos = nombreEcolos;
+		this.nombrePollueurs = nombrePollueurs;
+		this.nombreVoyageurs = nombreVoyageurs;
+		this.nombreFous = nombreFous;
 		nombreUsagers = nombreEcolos + nombrePollueurs + nombreVoyageurs + nombreFous;
 		usagers = new Usager[nombreUsagers];
 
@@ -163,29 +443,386 @@ public class Logement {
 			usagers[i] = new Pollueur();
 
 		for (j = i; i < j + nombreFous; i++)
-			usagers[i] = new Fou();
+			usagers[i] = new Fou(alea);
 
 		// On initialise les vecteurs stochastiques de chaque usager.
 		for (int k = 0; k < nombreUsagers; k++)
 			usagers[k].setVecteurStochastique(nombreStrategies);
 	}
 
+	/**
+	 * Cre une copie du logement qui ne partage aucun tat modifiable avec le
+	 * modle, pour l'analyser dans une autre tche.
+	 * 
+	 * @param alea
+	 *            la source alatoire de la copie.
+	 */
+	private Logement(Logement modele, SourceAleatoire alea) {
+		this.alea = alea;
+		temperatureExterieure = modele.temperatureExterieure;
+		politique = modele.politique;
+		methode = modele.methode;
+		nombreStrategies = modele.nombreStrategies;
+		nombreEcolos = modele.nombreEcolos;
+		nombrePollueurs = modele.nombrePollueurs;
+		nombreVoyageurs = modele.nombreVoyageurs;
+		nombreFous = modele.nombreFous;
+		nombreUsagers = modele.nombreUsagers;
+		resolutionCourbe = modele.resolutionCourbe;
+
+		usagers = new Usager[nombreUsagers];
+		for (int i = 0; i < nombreUsagers; i++)
+			usagers[i] = modele.usagers[i].copie();
+
+		if (modele.courbeReduction != null) {
+			courbeReduction = modele.courbeReduction.copie();
+			alphaCourbe = modele.alphaCourbe;
+			graineCourbe = modele.graineCourbe;
+		}
+		courbeImportee = modele.courbeImportee;
+	}
+
+	/**
+	 * Cre un logement suivant un scnario. Il ne partage rien de modifiable
+	 * avec les autres logements crs  partir du mme scnario et peut tre
+	 * analys en mme temps qu'eux dans une autre tche.
+	 */
+	public Logement(Scenario scenario) {
+		this(scenario.nombreStrategies(), scenario.nombreEcolos(), scenario.nombrePollueurs(),
+				scenario.nombreVoyageurs(), scenario.nombreFous(), new SourceAleatoire(scenario.graine()));
+		temperatureExterieure = scenario.temperatureExterieure();
+		politique = scenario.politique();
+		methode = scenario.methode();
+		resolutionCourbe = scenario.resolutionCourbe();
+		if (scenario.courbe())
+			setCourbeReduction(scenario.alphaCourbe(), scenario.graineCourbe());
+	}
+
+	/**
+	 * @return le scnario correspondant aux paramtres actuels du logement.
+	 *         Un logement cr  partir de ce scnario contient les mmes
+	 *         usagers.
+	 */
+	public Scenario scenario() {
+		Scenario s = new Scenario(nombreStrategies, nombreEcolos, nombrePollueurs, nombreVoyageurs, nombreFous,
+				alea.graine()).avecTemperatureExterieure(temperatureExterieure).avecPolitique(politique)
+						.avecMethode(methode).avecResolutionCourbe(resolutionCourbe);
+		// Une courbe importe ne peut pas tre dcrite par un scnario.
+		return courbeReduction == null || Double.isNaN(alphaCourbe) ? s
+				: s.avecCourbeReduction(alphaCourbe, graineCourbe);
+	}
+
 	public void setTemperatureExterieure(double temp) {
 		temperatureExterieure = temp;
+		evaluateurAJour = false;
 	}
 
 	public void setPolitique(Politique p) {
 		politique = p;
+		reductionsAJour = false;
 	}
 
 	public Politique politique() {
 		return politique;
 	}
 
+	/**
+	 * @return la graine de la source alatoire du logement, qui suffit 
+	 *         rejouer ses simulations.
+	 */
+	public long graine() {
+		return alea.graine();
+	}
+
 	public void setMethode(Methode m) {
 		methode = m;
 	}
 
+	/**
+	 * @param c
+	 *            le cache  consulter avant chaque analyse ou recherche de
+	 *            courbe. null pour ne plus utiliser de cache.
+	 */
+	public void setCache(CacheEquilibres c) {
+		cache = c;
+	}
+
+	/**
+	 * @param chaud
+	 *            vrai pour que les recherches de courbe de rduction repartent
+	 *            de l'quilibre trouv pour la courbe prcdente, faux pour
+	 *            qu'elles analysent chaque courbe de zro, comme
+	 *            {@link #analyse()}. Les deux doivent donner des courbes de
+	 *            mme qualit, aux quilibres multiples prs.
+	 */
+	public void setDemarrageAChaud(boolean chaud) {
+		demarrageAChaud = chaud;
+	}
+
+	/**
+	 * @param actif
+	 *            si vrai, les courbes candidates de
+	 *            {@link #monteCarlo(int, int, PrintStream)} dont le cot
+	 *            estim est nettement moins bon que celui de la meilleure ne
+	 *            sont pas analyses, voir {@link Substitut}.
+	 */
+	public void setSubstitut(boolean actif) {
+		substitut = actif;
+	}
+
+	/**
+	 * Fait crire aux recherches longues, toutes les intervalle
+	 * millisecondes, un point de reprise dans fichier : l'tat de
+	 * {@link #monteCarlo(int, int, PrintStream)}, ou celui de LRI lors d'une
+	 * {@link #analyse()}. Si fichier contient dj un point de reprise du mme
+	 * calcul, celui-ci reprend l o il s'tait arrt au lieu de repartir de
+	 * zro. Le fichier est supprim  la fin du calcul, mais pas si celui-ci
+	 * a t interrompu par son {@link #delai} ou annul.
+	 * 
+	 * Le rsultat repris est celui d'un calcul ininterrompu, sauf avec
+	 * {@link #setSubstitut(boolean)} : l'estimateur n'est pas enregistr et
+	 * rapprend depuis le point de reprise, si bien que les courbes cartes
+	 * peuvent diffrer.
+	 * 
+	 * @param fichier
+	 *            null pour ne pas crire de point de reprise.
+	 */
+	public void setReprise(Path fichier, long intervalle) {
+		fichierReprise = fichier;
+		intervalleReprise = intervalle;
+		prochaineReprise = echeanceDans(intervalleReprise);
+	}
+
+	/**
+	 * Relit une courbe crite par une recherche prcdente dans
+	 * courbe_de_reduction.txt et l'utilise comme courbe de rduction. Les
+	 * recherches de courbe la considrent ensuite comme la meilleure courbe
+	 * de dpart si elle bat l'absence de rduction.
+	 */
+	public void chargerCourbe(Path fichier) throws IOException {
+		courbeImportee = CourbeReduction.lire(fichier);
+		utiliserCourbeImportee();
+	}
+
+	/**
+	 * Remplace la courbe de rduction par une copie de
+	 * {@link #courbeImportee}, dsigne par un alpha NaN.
+	 */
+	private void utiliserCourbeImportee() {
+		courbeReduction = courbeImportee.copie();
+		alphaCourbe = Double.NaN;
+		graineCourbe = courbeImportee.empreinte();
+		reductionsAJour = false;
+	}
+
+	/**
+	 * @return vrai s'il est temps d'crire un point de reprise.
+	 */
+	private boolean repriseDue() {
+		if (fichierReprise == null || System.nanoTime() < prochaineReprise)
+			return false;
+		prochaineReprise = echeanceDans(intervalleReprise);
+		return true;
+	}
+
+	private void ecrireReprise(PointDeReprise p) {
+		try {
+			p.ecrire(fichierReprise);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @return le point de reprise de LRI dcrit par description, dans l'tat
+	 *         courant des vecteurs stochastiques des usagers.
+	 */
+	private PointDeReprise pointDeRepriseLri(String description, SourceAleatoire tirage, double b, double precision,
+			double[] utilite, int[] meilleur, double regretMeilleur) {
+		PointDeReprise p = new PointDeReprise(description, PointDeReprise.LRI);
+		p.etatTirage = tirage.etat();
+		p.b = b;
+		p.precision = precision;
+		p.utilite = utilite;
+		p.vecteurs = new double[nombreUsagers][];
+		for (int i = 0; i < nombreUsagers; i++)
+			p.vecteurs[i] = usagers[i].vecteurStochastique();
+		p.meilleur = meilleur;
+		p.regretMeilleur = regretMeilleur;
+		return p;
+	}
+
+	private void supprimerReprise() {
+		try {
+			Files.deleteIfExists(fichierReprise);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @param epsilon
+	 *            le regret dont se contentent les analyses, voir
+	 *            {@link #regret(int[])}. 0 pour chercher un Nash pur exact.
+	 */
+	public void setEpsilon(double epsilon) {
+		this.epsilon = epsilon;
+	}
+
+	/**
+	 * @param millisecondes
+	 *            le temps accord  chaque analyse. Pass ce dlai, la mthode
+	 *            choisie s'arrte et rend le vecteur de moindre regret qu'elle
+	 *            a trouv. 0 pour ne pas limiter la dure.
+	 */
+	public void setDelai(long millisecondes) {
+		delai = millisecondes;
+	}
+
+	/**
+	 * @param journal
+	 *            reoit les estimations de cot sur lesquelles
+	 *            {@link Methode#AUTO} fonde son choix, et chaque mthode
+	 *            abandonne avec la raison de son chec. null pour ne rien
+	 *            crire.
+	 */
+	public void setJournal(PrintStream journal) {
+		this.journal = journal;
+		dernierChoix = null;
+	}
+
+	/**
+	 * @return le regret atteint par la dernire analyse : 0 pour un Nash pur,
+	 *         au plus {@link #epsilon} si la mthode a atteint son but, plus
+	 *         si elle a manqu de temps ou d'itrations. NaN s'il n'a pas pu
+	 *         tre mesur.
+	 */
+	public double dernierRegret() {
+		return dernierRegret;
+	}
+
+	double epsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * @return l'instant, au sens de {@link System#nanoTime()}, qui suivra
+	 *         maintenant de millisecondes, ou Long.MAX_VALUE s'il ne tient
+	 *         pas dans un long.
+	 */
+	private static long echeanceDans(long millisecondes) {
+		long maintenant = System.nanoTime();
+		if (millisecondes > Long.MAX_VALUE / 1000000)
+			return Long.MAX_VALUE;
+		long instant = maintenant + millisecondes * 1000000;
+		return millisecondes > 0 && instant < maintenant ? Long.MAX_VALUE : instant;
+	}
+
+	/**
+	 * @return vrai si l'analyse en cours a dpass son {@link #delai}.
+	 */
+	boolean horsDelai() {
+		return System.nanoTime() > echeance;
+	}
+
+	/**
+	 * @param strategies
+	 *            une stratgie par usager.
+	 * @return le plus grand gain qu'un usager obtiendrait en changeant seul de
+	 *         stratgie, la facture tant recalcule comme dans
+	 *         {@link #meilleureReponse(int[], int)}. 0 si et seulement si
+	 *         strategies est un Nash pur.
+	 */
+	public double regret(int[] strategies) {
+		return evaluateur().regret(strategies, factureIndividuelle(strategies));
+	}
+
+	/**
+	 * Change le nombre de paliers de la fonction de rduction. La courbe
+	 * courante, s'il y en a une, est regnre avec la nouvelle rsolution,
+	 * sauf si elle a t importe ou retouche : elle garde alors la sienne.
+	 * 
+	 * @param resolution
+	 *            entre 1 et {@link CourbeReduction#RESOLUTION_MAX}.
+	 */
+	public void setResolutionCourbe(int resolution) {
+		resolutionCourbe = resolution;
+		if (courbeReduction != null && !Double.isNaN(alphaCourbe))
+			setCourbeReduction(alphaCourbe, graineCourbe);
+	}
+
+	int nombreUsagers() {
+		return nombreUsagers;
+	}
+
+	int nombreStrategies() {
+		return nombreStrategies;
+	}
+
+	Usager usager(int i) {
+		return usagers[i];
+	}
+
+	/**
+	 * @return l'valuateur des utilits dans la situation actuelle.
+	 */
+	EvaluateurUtilite evaluateur() {
+		if (evaluateurAJour && reductionsAJour && evaluateur != null)
+			return evaluateur;
+		moteurIncremental = null;
+		if (!evaluateurAJour)
+			indexPaliers = null;
+		if (evaluateur == null || (!evaluateurAJour && evaluateur.partage)) {
+			evaluateur = new EvaluateurUtilite(this);
+			tamponUtilites = new double[nombreUsagers * nombreStrategies];
+		} else if (!evaluateurAJour)
+			evaluateur.calculer(this);
+		else if (!reductionsAJour)
+			evaluateur.calculerReductions(this);
+		evaluateurAJour = true;
+		reductionsAJour = true;
+		return evaluateur;
+	}
+
+	/**
+	 * @return la consommation totale au-del de laquelle la facture augmente,
+	 *         voir {@link #EDF}.
+	 */
+	double seuilConsommation() {
+		return EDF * nombreUsagers;
+	}
+
+	/**
+	 * Rciproque de {@link #facture(double)}.
+	 * 
+	 * @return les consommations totales minimale et maximale pour lesquelles
+	 *         la facture est comprise entre basse et haute, null s'il n'y en a
+	 *         pas. Sous {@link #seuilConsommation()}, la facture ne dpend pas
+	 *         de la consommation.
+	 */
+	double[] consommationsPourFactures(double basse, double haute) {
+		if (haute < PLANCHER || basse > haute)
+			return null;
+		double min = basse <= PLANCHER ? Double.NEGATIVE_INFINITY : (basse - PLANCHER + EDF) * nombreUsagers;
+		double max = Math.max(seuilConsommation(), (haute - PLANCHER + EDF) * nombreUsagers);
+		return new double[] { min, max };
+	}
+
+	/**
+	 * @return les tempratures, dans l'ordre croissant, auxquelles la
+	 *         rduction change de valeur. La rduction est continue partout
+	 *         ailleurs.
+	 */
+	double[] discontinuitesReduction() {
+		if (politique != Politique.MONTECARLO)
+			return new double[0];
+
+		double[] discontinuites = new double[courbeReduction.nombreMorceaux() - 1];
+		for (int j = 1; j < courbeReduction.nombreMorceaux(); j++)
+			discontinuites[j - 1] = courbeReduction.temperature(courbeReduction.debut(j));
+		return discontinuites;
+	}
+
 	/**
 	 * @param temperature
 	 *            la temprature choisie par un usager.
@@ -200,7 +837,8 @@ public class Logement {
 	 * quilibre de Nash Mixte dj calcul.
 	 */
 	public void setTemperatureMoyenneUsagers() {
-		temperatureUsager = new double[nombreUsagers];
+		if (temperatureUsager == null || temperatureUsager.length != nombreUsagers)
+			temperatureUsager = new double[nombreUsagers];
 		for (int i = 0; i < nombreUsagers; i++) {
 			temperatureUsager[i] = 0;
 			double[] tmp = usagers[i].vecteurStochastique();
@@ -209,6 +847,14 @@ public class Logement {
 		}
 	}
 
+	/**
+	 * @return la temprature choisie par chaque usager lors de la dernire
+	 *         analyse. null si aucune analyse n'a abouti.
+	 */
+	public double[] temperaturesUsagers() {
+		return temperatureUsager == null ? null : temperatureUsager.clone();
+	}
+
 	public double consommationTotale() {
 		double total = 0;
 		for (double d : temperatureUsager) {
@@ -217,6 +863,17 @@ public class Logement {
 		return total;
 	}
 
+	/**
+	 * @return le confort moyen des usagers  l'issue de la dernire analyse,
+	 *         entre 0 et 1.
+	 */
+	public double confortMoyen() {
+		double total = 0;
+		for (int i = 0; i < nombreUsagers; i++)
+			total += usagers[i].utiliteTemperature(temperatureUsager[i]);
+		return total / nombreUsagers;
+	}
+
 	/**
 	 * voir {@link #PLANCHER} et{@link #EDF}
 	 * 
@@ -266,11 +923,9 @@ public class Logement {
 		case AUCUNEREDUCTION:
 			return 0;
 		case MONTECARLO:
-			// On normalise la temprature entre 0 et 1 puis on l'arrondie.
-			// On regarde ensuite la valeur associe  cette temprature dans
-			// courbeReduction.
-			return courbeReduction[(int) (PAS_COURBE_REDUCTION * (temperature - Usager.TEMPERATURE_MINIMALE)
-					/ (TEMPERATURE_MAX - Usager.TEMPERATURE_MINIMALE))];
+			// On regarde la valeur associe au palier contenant cette
+			// temprature dans courbeReduction.
+			return courbeReduction.reduction(temperature);
 		default:
 			new Exception("Pas de politique choisie").printStackTrace();
 		case TEST:
@@ -278,6 +933,24 @@ public class Logement {
 		}
 	}
 
+	/**
+	 * Comme {@link #temperatureToReduction(double)}, pour plusieurs
+	 * tempratures  la fois.
+	 * 
+	 * @param temperatures
+	 *            tries par ordre croissant.
+	 * @param reductions
+	 *            reoit la rduction correspondant  chaque temprature.
+	 */
+	void temperaturesToReductions(double[] temperatures, double[] reductions) {
+		if (politique == Politique.MONTECARLO) {
+			courbeReduction.reductions(temperatures, reductions);
+			return;
+		}
+		for (int k = 0; k < temperatures.length; k++)
+			reductions[k] = temperatureToReduction(temperatures[k]);
+	}
+
 	/**
 	 * @param vecteurDeStrategies
 	 *            un vecteur contenant un entier par usager qui indique la
@@ -288,63 +961,168 @@ public class Logement {
 	 * @return un vecteur de stratgie au mme format que vecteurDeStrategies.
 	 *         Celui-ci correspond  un quilibre de Nash pur. renvoie null si
 	 *         aucun vecteur n'est trouv au bout d'un certains nombre
-	 *         d'itrations.
+	 *         d'itrations, ou ds que la recherche repasse par un vecteur
+	 *         dj rencontr : elle cyclerait alors indfiniment. Le cycle est
+	 *         conserv dans {@link #dernierCycle}. On s'arrte aussi sur un
+	 *         vecteur dont le regret ne dpasse pas {@link #epsilon}, et 
+	 *         l'expiration du {@link #delai} ; le vecteur de moindre regret
+	 *         rencontr est conserv dans {@link #meilleurProfil}.
 	 */
 	public int[] meilleureReponse(int[] vecteurDeStrategies, int nombreIterations) {
+		dernierCycle = null;
+		meilleurProfil = null;
+		meilleurRegret = Double.POSITIVE_INFINITY;
+		EvaluateurUtilite e = evaluateur();
+		long[] z = zobrist();
+
+		int[] courant = vecteurDeStrategies;
+		long empreinte = 0;
+		for (int i = 0; i < nombreUsagers; i++)
+			empreinte ^= z[i * nombreStrategies + courant[i]];
+
+		// Les derniers vecteurs rencontrs, et pour chaque empreinte le tour
+		// auquel on l'a rencontre.
+		long[] empreintes = new long[HISTORIQUE_MEILLEURE_REPONSE];
+		int[][] vecteurs = new int[HISTORIQUE_MEILLEURE_REPONSE][];
+		Map<Long, Integer> rencontres = new HashMap<>();
 
 		// On s'arrte si on estime qu'on a dj chercher suffisamment
 		// longtemps.
-		if (nombreIterations == 0) {
-			new Exception("Impossible de trouver un quilibre de Nash pur avec un algorithme de meilleure rponse");
-			return null;
-		}
-
-		double facture = factureIndividuelle(vecteurDeStrategies);
-
-		double utiliteMax;
-		int strategies[] = new int[nombreUsagers];
-		for (int i = 0; i < nombreUsagers; i++)
-			strategies[i] = vecteurDeStrategies[i];
+		for (int tour = 0; tour < nombreIterations; tour++) {
+
+			// Si on retombe sur un vecteur dj rencontr, la recherche
+			// reproduira les mmes tours indfiniment.
+			Integer precedent = rencontres.get(empreinte);
+			if (precedent != null && Arrays.equals(vecteurs[precedent % HISTORIQUE_MEILLEURE_REPONSE], courant)) {
+				dernierCycle = new ArrayList<>();
+				for (int t = precedent; t < tour; t++)
+					dernierCycle.add(vecteurs[t % HISTORIQUE_MEILLEURE_REPONSE]);
+				return null;
+			}
+			if (tour >= HISTORIQUE_MEILLEURE_REPONSE)
+				rencontres.remove(empreintes[tour % HISTORIQUE_MEILLEURE_REPONSE], tour - HISTORIQUE_MEILLEURE_REPONSE);
+			empreintes[tour % HISTORIQUE_MEILLEURE_REPONSE] = empreinte;
+			vecteurs[tour % HISTORIQUE_MEILLEURE_REPONSE] = courant;
+			rencontres.put(empreinte, tour);
+
+			double facture = factureIndividuelle(courant);
+
+			double utiliteMax;
+			int strategies[] = courant.clone();
+
+			// On calcule d'un coup les utilits que chaque usager aurait pu
+			// obtenir avec chacune de ses stratgies.
+			e.utilitesDeviation(0, nombreUsagers, courant, facture, tamponUtilites);
+
+			double regret = 0;
+			for (int i = 0; i < nombreUsagers; i++) {
+
+				// On calcule l'utilit de chaque usager, comme une dviation
+				// vers sa propre stratgie pour qu'elle porte le mme arrondi
+				// que les autres.
+				utiliteMax = tamponUtilites[i * nombreStrategies + courant[i]];
+				double utiliteActuelle = utiliteMax;
+
+				// On regarde pour chaque usager les utilits qu'il aurait pu
+				// obtenir avec ses autres stratgies.
+				for (int k = 0; k < nombreStrategies; k++) {
+
+					double tmp = tamponUtilites[i * nombreStrategies + k];
+					if (k != courant[i])
+						regret = Math.max(regret, tmp - utiliteActuelle);
+
+					// Si une stratgie s'avre meilleure que celle utilise 
+					// cette itration, on la mmorise pour la prochaine.
+					if (utiliteMax < tmp) {
+						strategies[i] = k;
+						utiliteMax = tmp;
+					}
+				}
+			}
 
-		double utilite[] = new double[nombreUsagers];
-		for (int i = 0; i < nombreUsagers; i++) {
+			if (regret < meilleurRegret) {
+				meilleurRegret = regret;
+				meilleurProfil = courant;
+			}
+			if (regret <= epsilon && epsilon > 0)
+				return courant;
+			if (horsDelai())
+				return null;
+
+			// Si un seul usager aurait pu amliorer son utilit avec une
+			// stratgie diffrente, on ritre avec les nouvelles stratgies.
+			boolean change = false;
+			for (int i = 0; i < nombreUsagers; i++)
+				if (strategies[i] != courant[i]) {
+					empreinte ^= z[i * nombreStrategies + courant[i]] ^ z[i * nombreStrategies + strategies[i]];
+					change = true;
+				}
 
-			// On calcule l'utilit de chaque usager.
-			utilite[i] = usagers[i].utiliteTotale(strategieToTemperature(vecteurDeStrategies[i], usagers[i]), facture,
-					temperatureToReduction(strategieToTemperature(vecteurDeStrategies[i], usagers[i])));
+			// Si aucun usager n'aurait pu amliorer son utilit seul, on est
+			// arriv  un quilibre de Nash et on s'arrte.
+			if (!change)
+				return courant;
+			courant = strategies;
+		}
 
-			utiliteMax = utilite[i];
+		return null;
+	}
 
-			// On regarde pour chaque usager les utilits qu'il aurait pu
-			// obtenir avec ses autres stratgies.
-			for (int k = 0; k < nombreStrategies; k++) {
+	/**
+	 * @return les valeurs {@link #zobrist}, tires d'une source de graine fixe
+	 *         pour ne pas perturber les tirages du logement.
+	 */
+	private long[] zobrist() {
+		if (zobrist == null) {
+			SourceAleatoire s = new SourceAleatoire(0);
+			zobrist = new long[nombreUsagers * nombreStrategies];
+			for (int i = 0; i < zobrist.length; i++)
+				zobrist[i] = s.nextLong();
+		}
+		return zobrist;
+	}
 
-				double tmp = usagers[i]
-						.utiliteTotale(strategieToTemperature(k, usagers[i]),
-								facture - (consommationIndividuelle(
-										strategieToTemperature(vecteurDeStrategies[i], usagers[i])) / nombreUsagers)
-								+ (consommationIndividuelle(strategieToTemperature(k, usagers[i])) / nombreUsagers),
-						strategieToReduction(k, usagers[i]));
+	/**
+	 * Appele lorsque la meilleure rponse cycle, et qu'il n'existe donc
+	 * probablement pas de Nash pur accessible. Chaque usager commence avec un
+	 * vecteur stochastique donnant  chaque stratgie la frquence avec
+	 * laquelle il l'a joue le long du cycle, puis on laisse LRI faire
+	 * voluer ces vecteurs pendant au plus {@link #ITERATIONS_LRI_CYCLE} tours.
+	 * Si LRI converge vers un Nash pur, on le retient ; sinon les usagers
+	 * gardent les tempratures moyennes de leur vecteur stochastique.
+	 * 
+	 * @param cycle
+	 *            les vecteurs de stratgies parcourus par la meilleure rponse.
+	 * @param tirage
+	 *            la source dans laquelle LRI tire les stratgies des usagers.
+	 */
+	private void equilibreMixte(List<int[]> cycle, SourceAleatoire tirage) {
+		for (int i = 0; i < nombreUsagers; i++) {
+			usagers[i].setVecteurStochastique(nombreStrategies);
+			double[] vecteur = usagers[i].vecteurStochastique();
+			Arrays.fill(vecteur, 0);
+			for (int[] v : cycle)
+				vecteur[v[i]] += 1.0 / cycle.size();
+		}
 
-				// Si une stratgie s'avre meilleure que celle utilise  cette
-				// itration, on la mmorise pour la prochaine.
-				if (utiliteMax < tmp) {
-					strategies[i] = k;
-					utiliteMax = tmp;
+		double[] utilite = new double[nombreUsagers];
+		for (int tour = 0; tour < ITERATIONS_LRI_CYCLE && !horsDelai(); tour++)
+			if (lri(0.1, utilite, tirage, LRI_PRECISION)) {
+				int[] pur = new int[nombreUsagers];
+				for (int i = 0; i < nombreUsagers; i++)
+					pur[i] = usagers[i].getPureFromStochastique(LRI_PRECISION);
+				if (testMixedNash(pur)) {
+					dernierEquilibre = pur;
+					dernierRegret = regret(pur);
+					setTemperatureUsagers(pur);
+					return;
 				}
+				break;
 			}
-		}
-
-		// Si un seul usager aurait pu amliorer son utilit avec une stratgie
-		// diffrente, on ritre cet algorithme avec les nouvelles stratgies.
-		for (int i = 0; i < nombreUsagers; i++)
-			if (strategies[i] != vecteurDeStrategies[i])
-				return meilleureReponse(strategies, --nombreIterations);
-
-		// Si aucun usager n'aurait pu amliorer son utilit seul, on est arriv
-		//  un quilibre de Nash et on s'arrte.
-		return vecteurDeStrategies;
 
+		dernierEquilibre = null;
+		dernierRegret = Double.NaN;
+		setTemperatureMoyenneUsagers();
 	}
 
 	/**
@@ -354,9 +1132,11 @@ public class Logement {
 	 * stratgies par usager et m le nombre d'usagers.
 	 * 
 	 * @return l'ensemble de stratgies des joueurs correspondant  un Nash pur.
-	 *         null si aucun Nash pur n'est trouv.
+	 *         null si aucun Nash pur n'est trouv, ou si le {@link #delai}
+	 *         est coul avant la fin de la recherche.
 	 */
 	public int[] forceBrute() {
+		EvaluateurUtilite e = evaluateur();
 		double utilite[][] = new double[(int) Math.pow(nombreStrategies, nombreUsagers)][nombreUsagers];
 
 		int strategies[] = new int[nombreUsagers];
@@ -370,12 +1150,13 @@ public class Logement {
 		// De mme, avec 5 joueurs ayant chacun 6 stratgies, i = 42103 en
 		// base 6 correspond au vecteur [3, 0, 1, 2, 4].
 		for (int i = 0; i < (int) Math.pow(nombreStrategies, nombreUsagers); i++) {
+			if (horsDelai())
+				return null;
 
 			double facture = factureIndividuelle(strategies);
 
 			for (int j = 0; j < nombreUsagers; j++)
-				utilite[i][j] = usagers[j].utiliteTotale(strategieToTemperature(strategies[j], usagers[j]), facture,
-						strategieToReduction(strategies[j], usagers[j]));
+				utilite[i][j] = e.utilite(j, strategies[j], facture);
 
 			strategies[aiguille]++;
 			if (strategies[aiguille] == nombreStrategies) {
@@ -398,6 +1179,8 @@ public class Logement {
 
 		// On parcours tous les vecteurs i
 		for (int i = 0; i < (int) Math.pow(nombreStrategies, nombreUsagers); i++) {
+			if (horsDelai())
+				return null;
 			nashPur = true;
 
 			// On regarde l'utilit de tous les joueurs j dans le vecteur i
@@ -427,7 +1210,8 @@ public class Logement {
 	 *            le vecteur de strategie des usagers
 	 */
 	private void setTemperatureUsagers(int[] vecteur) {
-		temperatureUsager = new double[nombreUsagers];
+		if (temperatureUsager == null || temperatureUsager.length != nombreUsagers)
+			temperatureUsager = new double[nombreUsagers];
 		for (int i = 0; i < nombreUsagers; i++)
 			temperatureUsager[i] = strategieToTemperature(vecteur[i], usagers[i]);
 	}
@@ -442,25 +1226,34 @@ public class Logement {
 	 * @return vrai si on a trouv un Nash pur probable, faux sinon.
 	 */
 	public boolean lri(double b, double[] utilitePrecedente) {
+		return lri(b, utilitePrecedente, alea, LRI_PRECISION);
+	}
+
+	/**
+	 * @param tirage
+	 *            la source dans laquelle on tire les stratgies des usagers.
+	 * @param precision
+	 *            voir {@link #LRI_PRECISION}.
+	 */
+	private boolean lri(double b, double[] utilitePrecedente, SourceAleatoire tirage, double precision) {
 
 		// On choisit une stratgie par usager en fonction de leur vecteur
 		// stochastique respectif.
 		int strategies[] = new int[nombreUsagers];
 		for (int i = 0; i < nombreUsagers; i++) {
-			double tmp = Math.random();
+			double tmp = tirage.nextDouble();
 			strategies[i] = usagers[i].choisirStrategie(tmp);
 		}
 
 		double facture = factureIndividuelle(strategies);
+		EvaluateurUtilite e = evaluateur();
 		boolean stop = true;
 
 		// On met  jour leur vecteur stochastique et l'utilit prcdente
 		// devient l'utilit calcule dans les lignes prcdentes.
 		for (int i = 0; i < nombreUsagers; i++) {
-			double utiliteTotale = usagers[i].utiliteTotale(strategieToTemperature(strategies[i], usagers[i]), facture,
-					strategieToReduction(strategies[i], usagers[i]));
-			if (usagers[i].updateStochastique(strategies[i], utiliteTotale, b, utilitePrecedente[i]) < 1
-					- LRI_PRECISION)
+			double utiliteTotale = e.utilite(i, strategies[i], facture);
+			if (usagers[i].updateStochastique(strategies[i], utiliteTotale, b, utilitePrecedente[i]) < 1 - precision)
 
 				stop = false;
 			utilitePrecedente[i] = utiliteTotale;
@@ -490,6 +1283,17 @@ public class Logement {
 		for (int j = 0; j < nombreUsagers; j++)
 			consommation += consommationIndividuelle(strategieToTemperature(strategies[j], usagers[j]));
 
+		return facture(consommation);
+	}
+
+	/**
+	 * @param consommationTotale
+	 *            la consommation de l'ensemble des usagers.
+	 * @return la facture que chaque usager doit payer.
+	 */
+	double facture(double consommationTotale) {
+		double consommation = consommationTotale;
+
 		// Les usagers doivent payer un montant forfaitaire.
 		consommation /= nombreUsagers;
 		if (consommation < EDF)
@@ -516,22 +1320,149 @@ public class Logement {
 
 	/**
 	 * Analyse la situation en suivant une {@link #methode}. tablit les
-	 * tempratures ou tempratures moyennes de chaque usager.
+	 * tempratures ou tempratures moyennes de chaque usager. Si un
+	 * {@link #cache} est utilis et contient dj ce scnario, on reprend le
+	 * rsultat mmoris.
 	 */
 	public void analyse() {
+		analyse(null);
+	}
+
+	/**
+	 * Comme {@link #analyse()}, mais la recherche part d'un vecteur de
+	 * stratgies donn, par exemple un quilibre trouv pour une situation
+	 * voisine. Les mthodes de meilleure rponse partent directement de ce
+	 * vecteur ; LRI part de vecteurs stochastiques favorisant ces stratgies,
+	 * voir {@link #POIDS_DEMARRAGE_LRI}. Les mthodes exactes et
+	 * {@link Methode#CONTINU} n'en tiennent pas compte.
+	 * 
+	 * @param depart
+	 *            une stratgie par usager, ou null pour partir de zro.
+	 */
+	public void analyse(int[] depart) {
+		SourceAleatoire tirage = alea.separer();
+
+		String empreinte = null;
+		// Une analyse limite dans le temps ne donne pas toujours le mme
+		// rsultat : on ne la met pas en cache.
+		if (cache != null && delai == 0 && (politique != Politique.MONTECARLO || courbeReduction != null)) {
+			empreinte = empreinte("analyse", tirage);
+			if (depart != null)
+				empreinte += ";depart=" + ecrire(depart);
+			if (politique == Politique.MONTECARLO)
+				empreinte += ";courbe=" + alphaCourbe + "," + graineCourbe + "," + resolutionCourbe;
+
+			List<String> memorise = cache.lire(empreinte);
+			if (memorise != null && memorise.size() == 3) {
+				temperatureUsager = lireReels(memorise.get(0));
+				dernierEquilibre = memorise.get(1).isEmpty() ? null : lireEntiers(memorise.get(1));
+				dernierRegret = Double.parseDouble(memorise.get(2));
+				return;
+			}
+		}
+
+		repriseLri = true;
+		try {
+			resoudre(tirage, depart);
+		} finally {
+			repriseLri = false;
+		}
+
+		if (empreinte != null)
+			cache.ecrire(empreinte, Arrays.asList(ecrire(temperatureUsager),
+					dernierEquilibre == null ? "" : ecrire(dernierEquilibre), Double.toString(dernierRegret)));
+	}
+
+	/**
+	 * Calcule l'quilibre sans passer par le {@link #cache}.
+	 * 
+	 * @param tirage
+	 *            la source dans laquelle LRI tire les stratgies des usagers.
+	 */
+	private void resoudre(SourceAleatoire tirage) {
+		resoudre(tirage, null);
+	}
 
-		switch (methode) {
+	/**
+	 * @param depart
+	 *            voir {@link #analyse(int[])}.
+	 */
+	private void resoudre(SourceAleatoire tirage, int[] depart) {
+		moteurIncremental = null;
+		echeance = delai > 0 ? echeanceDans(delai) : Long.MAX_VALUE;
+		try {
+			resoudreAvantEcheance(methode, tirage, depart);
+		} finally {
+			echeance = Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Comme {@link #resoudre(SourceAleatoire, int[])} avec la mthode m,
+	 * {@link #echeance} tant fixe. Chaque mthode rend le meilleur vecteur
+	 * qu'elle a trouv et son regret dans {@link #dernierRegret}.
+	 */
+	private void resoudreAvantEcheance(Methode m, SourceAleatoire tirage, int[] depart) {
+
+		switch (m) {
 		case BRUTEFORCE:
-			setTemperatureUsagers(forceBrute());
+			dernierEquilibre = forceBrute();
+			if (dernierEquilibre == null)
+				dernierEquilibre = approcher(depart);
+			dernierRegret = regret(dernierEquilibre);
+			setTemperatureUsagers(dernierEquilibre);
+			return;
+
+		case AUTO:
+			resoudreAutomatiquement(tirage, depart);
 			return;
 
 		default:
 			new Exception("Mthode choisie inexistante, Meilleure rponse choisie").printStackTrace();
 		case MEILLEUREREPONSE:
-			int[] v = new int[nombreUsagers];
-			for (int i = 0; i < nombreUsagers; i++)
-				v[i] = 0;
-			setTemperatureUsagers(meilleureReponse(v, 10000));
+			resoudreParMeilleureReponse(tirage, depart != null ? depart.clone() : new int[nombreUsagers]);
+			return;
+
+		case MULTIRESOLUTION:
+			resoudreParMeilleureReponse(tirage,
+					new RaffinementGrille(this).resoudre(depart != null ? depart : new int[nombreUsagers], 10000));
+			return;
+
+		case MEILLEUREREPONSEINCREMENTALE:
+			MeilleureReponseIncrementale incrementale = new MeilleureReponseIncrementale(this);
+			dernierEquilibre = incrementale.resoudre(depart != null ? depart : new int[nombreUsagers], 10000);
+			if (dernierEquilibre == null)
+				dernierEquilibre = incrementale.meilleurProfil();
+			else {
+				moteurIncremental = incrementale;
+				usagersModifies = new boolean[nombreUsagers];
+			}
+			dernierRegret = regret(dernierEquilibre);
+			setTemperatureUsagers(dernierEquilibre);
+			return;
+
+		case SYMETRIE:
+			dernierEquilibre = new EnumerationSymetrique(this).resoudre();
+			if (dernierEquilibre == null)
+				dernierEquilibre = approcher(depart);
+			dernierRegret = regret(dernierEquilibre);
+			setTemperatureUsagers(dernierEquilibre);
+			return;
+
+		case PROGRAMMATIONDYNAMIQUE:
+			dernierEquilibre = new ProgrammationDynamique(this).resoudre();
+			if (dernierEquilibre == null)
+				dernierEquilibre = approcher(depart);
+			dernierRegret = regret(dernierEquilibre);
+			setTemperatureUsagers(dernierEquilibre);
+			return;
+
+		case CONTINU:
+			// Les tempratures trouves ne correspondent  aucune stratgie.
+			dernierEquilibre = null;
+			MeilleureReponseContinue moteur = new MeilleureReponseContinue(this);
+			temperatureUsager = moteur.resoudre(10000);
+			dernierRegret = moteur.regret();
 			return;
 
 		case LRI:
@@ -539,27 +1470,77 @@ public class Logement {
 			// On initialise
 
 			double b = 0.1;
+			double precision = LRI_PRECISION;
 			boolean nashFound = false;
 			int testNash[] = new int[nombreUsagers];
+			int meilleur[] = null;
+			double regretMeilleur = Double.POSITIVE_INFINITY;
+			boolean interrompue = false;
+
+			// On reprend si possible l o une analyse identique s'tait
+			// arrte.
+			String description = null;
+			PointDeReprise reprise = null;
+			if (fichierReprise != null && repriseLri) {
+				description = empreinte("lri", tirage) + ";etat=" + tirage.etat() + ";courbe=" + alphaCourbe + ","
+						+ graineCourbe + ";depart=" + Arrays.hashCode(depart);
+				reprise = PointDeReprise.lire(fichierReprise, description, PointDeReprise.LRI);
+			}
+			if (reprise != null) {
+				b = reprise.b;
+				precision = reprise.precision;
+				meilleur = reprise.meilleur;
+				regretMeilleur = reprise.regretMeilleur;
+				tirage.restaurer(reprise.etatTirage);
+			}
 
 			// Tant que les Nash purs apparents que l'on trouve ne sont pas
-			// rellement des Nash pur :
+			// rellement des Nash pur, ou ne s'en approchent pas assez :
 			while (!nashFound) {
 
-				// On initialise les vecteurs stochastiques
+				// On initialise les vecteurs stochastiques, en favorisant le
+				// vecteur de dpart s'il y en a un. Si la recherche doit tre
+				// relance, on repart de vecteurs uniformes.
 				double[] utilite = new double[nombreUsagers];
 				for (int i = 0; i < nombreUsagers; i++) {
 					utilite[i] = 0;
-					usagers[i].setVecteurStochastique(nombreStrategies);
+					if (reprise != null) {
+						utilite[i] = reprise.utilite[i];
+						usagers[i].setVecteurStochastique(reprise.vecteurs[i]);
+					} else if (depart != null)
+						usagers[i].setVecteurStochastique(nombreStrategies, depart[i], POIDS_DEMARRAGE_LRI);
+					else
+						usagers[i].setVecteurStochastique(nombreStrategies);
 				}
+				depart = null;
+				reprise = null;
 
 				// On recherche un Nash pur probable.
-				while (!lri(b, utilite))
-					;
-
-				// Quand on trouve un Nash pur probable, on le teste.
+				boolean probable;
+				while (!(probable = lri(b, utilite, tirage, precision)) && !horsDelai())
+					if (description != null && repriseDue())
+						ecrireReprise(pointDeRepriseLri(description, tirage, b, precision, utilite, meilleur,
+								regretMeilleur));
+
+				// Quand on trouve un Nash pur probable, on le teste. Faute de
+				// temps, on se rabat sur les stratgies les plus probables.
 				for (int i = 0; i < nombreUsagers; i++)
-					testNash[i] = usagers[i].getPureFromStochastique(LRI_PRECISION);
+					testNash[i] = probable ? usagers[i].getPureFromStochastique(precision)
+							: usagers[i].strategieLaPlusProbable();
+				double regret = regret(testNash);
+				if (regret < regretMeilleur) {
+					regretMeilleur = regret;
+					meilleur = testNash.clone();
+				}
+				interrompue = !probable;
+				if (interrompue || (regret <= epsilon && epsilon > 0)) {
+					// Arrte par son dlai, la recherche laisse un point de
+					// reprise  jour pour pouvoir tre poursuivie.
+					if (interrompue && description != null)
+						ecrireReprise(pointDeRepriseLri(description, tirage, b, precision, utilite, meilleur,
+								regretMeilleur));
+					break;
+				}
 
 				// On affine notre recherche, ce qui augmente le temps
 				// ncessaire avant d'obtenir un rsultat potentiel mais
@@ -568,13 +1549,343 @@ public class Logement {
 				nashFound = testMixedNash(testNash);
 				b /= 2;
 				if (b == 0) {
-					LRI_PRECISION /= 10;
+					precision /= 10;
 					b = 0.01;
 				}
 			}
-			setTemperatureMoyenneUsagers();
+			if (description != null && !interrompue)
+				supprimerReprise();
+			if (nashFound) {
+				dernierEquilibre = testNash.clone();
+				dernierRegret = regret(testNash);
+				setTemperatureMoyenneUsagers();
+			} else {
+				dernierEquilibre = meilleur;
+				dernierRegret = regretMeilleur;
+				setTemperatureUsagers(meilleur);
+			}
+			return;
+		}
+	}
+
+	/**
+	 * Essaie une  une les mthodes proposes par {@link ChoixMethode}, chacune
+	 * jusqu' son budget et au plus jusqu' {@link #echeance}. On garde le
+	 * rsultat de la premire qui trouve un vecteur de regret au plus
+	 * {@link #epsilon}, ou qui tablit exactement qu'il n'existe pas de Nash
+	 * pur. Si aucune n'y parvient, on garde le vecteur de moindre regret
+	 * trouv.
+	 */
+	private void resoudreAutomatiquement(SourceAleatoire tirage, int[] depart) {
+		ChoixMethode choix = new ChoixMethode(this);
+		if (journal != null && !choix.raisons().equals(dernierChoix)) {
+			dernierChoix = choix.raisons();
+			journal.println("AUTO : " + dernierChoix);
+		}
+
+		long echeanceAnalyse = echeance;
+		int[] meilleur = null;
+		double regretMin = Double.POSITIVE_INFINITY;
+		double[] temperatures = null;
+		try {
+			for (ChoixMethode.Candidat c : choix.candidats()) {
+				// Une fois le dlai coul, on se contente de ce que la
+				// premire mthode a trouv.
+				long debut = System.nanoTime();
+				if (debut > echeanceAnalyse && temperatures != null)
+					break;
+				echeance = c.budget() > echeanceAnalyse - debut ? echeanceAnalyse : debut + c.budget();
+
+				String echec;
+				try {
+					resoudreAvantEcheance(c.methode, tirage, depart);
+					boolean exacte = c.methode == Methode.BRUTEFORCE || c.methode == Methode.SYMETRIE
+							|| c.methode == Methode.PROGRAMMATIONDYNAMIQUE;
+					if (dernierRegret <= epsilon || (exacte && !horsDelai())) {
+						if (journal != null && c != choix.candidats().get(0))
+							journal.println("AUTO : " + c.methode + " retenue, regret " + dernierRegret);
+						return;
+					}
+					if (!horsDelai())
+						echec = "regret " + dernierRegret;
+					else if (echeance == echeanceAnalyse)
+						echec = "dlai de l'analyse coul";
+					else
+						echec = "budget de " + (echeance - debut) / 1000000 + " ms dpass";
+					if (dernierRegret < regretMin) {
+						regretMin = dernierRegret;
+						meilleur = dernierEquilibre;
+						temperatures = temperatureUsager.clone();
+					}
+				} catch (OutOfMemoryError | RuntimeException e) {
+					echec = e.toString();
+				}
+				if (journal != null)
+					journal.println("AUTO : " + c.methode + " abandonne (" + echec + ")");
+			}
+		} finally {
+			echeance = echeanceAnalyse;
+		}
+
+		if (journal != null)
+			journal.println("AUTO : aucune mthode n'a abouti, meilleur regret " + regretMin);
+		if (temperatures != null) {
+			dernierEquilibre = meilleur;
+			dernierRegret = regretMin;
+			temperatureUsager = temperatures;
+		}
+	}
+
+	/**
+	 * Cherche un Nash pur par {@link #meilleureReponse(int[], int)}  partir
+	 * de v, que l'on peut modifier.
+	 */
+	private void resoudreParMeilleureReponse(SourceAleatoire tirage, int[] v) {
+		dernierEquilibre = meilleureReponse(v, 10000);
+
+		// Si la recherche cycle sans avoir approch l'quilibre d'assez prs,
+		// on passe la main  LRI.
+		if (dernierEquilibre == null && dernierCycle != null && meilleurRegret > epsilon && !horsDelai()) {
+			equilibreMixte(dernierCycle, tirage);
+			return;
+		}
+		if (dernierEquilibre == null)
+			dernierEquilibre = meilleurProfil;
+		dernierRegret = regret(dernierEquilibre);
+		setTemperatureUsagers(dernierEquilibre);
+	}
+
+	/**
+	 * Lorsqu'une mthode exacte tablit qu'il n'existe pas de Nash pur, on se
+	 * contente du vecteur de moindre regret trouv par une meilleure rponse.
+	 */
+	private int[] approcher(int[] depart) {
+		int[] v = meilleureReponse(depart != null ? depart.clone() : new int[nombreUsagers], 10000);
+		return v != null ? v : meilleurProfil;
+	}
+
+	/**
+	 * Simule une saison de chauffage pendant laquelle la temprature
+	 * extrieure varie.  chaque pas, on cherche un nouvel quilibre en
+	 * partant des stratgies de l'quilibre du pas prcdent : si celles-ci
+	 * forment encore un Nash pur, on les garde telles quelles, sinon on
+	 * relance une meilleure rponse  partir d'elles. Les tempratures sont
+	 * consommes au fur et  mesure et ne sont jamais conserves en mmoire.
+	 * 
+	 * @param temperatures
+	 *            les tempratures extrieures successives.
+	 * @param out
+	 *            reoit  chaque pas une ligne [pas] [temprature extrieure]
+	 *            [consommation totale] [cot propritaire] [consommation
+	 *            cumule] [cot propritaire cumul].
+	 */
+	public void simulerSaison(Iterator<Double> temperatures, PrintStream out) {
+		double consommationCumulee = 0;
+		double coutCumule = 0;
+		int pas = 0;
+
+		while (temperatures.hasNext()) {
+			setTemperatureExterieure(temperatures.next());
+			reequilibrer();
+
+			double consommation = consommationTotale();
+			double cout = coutProprietaire();
+			consommationCumulee += consommation;
+			coutCumule += cout;
+
+			out.println(pas++ + " " + temperatureExterieure + " " + consommation + " " + cout + " "
+					+ consommationCumulee + " " + coutCumule);
+		}
+
+		out.println("consommation de la saison " + consommationCumulee);
+		out.println("cot propritaire de la saison " + coutCumule);
+		out.println();
+	}
+
+	/**
+	 * Comme {@link #simulerSaison(Iterator, PrintStream)}, les tempratures
+	 * tant lues dans un fichier texte contenant une temprature par ligne.
+	 * Les lignes vides et celles commenant par # sont ignores.
+	 * 
+	 * @param fichier
+	 *            le chemin du fichier de tempratures.
+	 * @param out
+	 */
+	public void simulerSaison(String fichier, PrintStream out) {
+		try (BufferedReader lecteur = new BufferedReader(new FileReader(fichier))) {
+			simulerSaison(new LecteurTemperatures(lecteur, fichier), out);
+		} catch (IOException | UncheckedIOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Recherche un quilibre aprs un changement de temprature extrieure en
+	 * repartant de {@link #dernierEquilibre}. On se ramne  une analyse
+	 * complte si aucun quilibre prcdent n'est connu ou si la meilleure rponse
+	 * choue.
+	 */
+	private void reequilibrer() {
+		echeance = delai > 0 ? echeanceDans(delai) : Long.MAX_VALUE;
+		try {
+			reequilibrerAvantEcheance();
+		} finally {
+			echeance = Long.MAX_VALUE;
+		}
+	}
+
+	private void reequilibrerAvantEcheance() {
+		if (dernierEquilibre == null) {
+			resoudre(alea);
+			return;
+		}
+
+		// Si l'quilibre prcdent tient toujours, il n'y a rien  recalculer.
+		if (testMixedNash(dernierEquilibre)) {
+			dernierRegret = regret(dernierEquilibre);
+			setTemperatureUsagers(dernierEquilibre);
+			return;
+		}
+
+		if (methode == Methode.LRI) {
+			resoudre(alea);
+			return;
+		}
+
+		// Sinon, quelques usagers seulement changent gnralement de
+		// stratgie : on repart de l'quilibre prcdent.
+		int[] v;
+		if (methode == Methode.MEILLEUREREPONSEINCREMENTALE)
+			v = new MeilleureReponseIncrementale(this).resoudre(dernierEquilibre, 10000);
+		else
+			v = meilleureReponse(dernierEquilibre, 10000);
+		if (v == null) {
+			resoudre(alea);
+			return;
+		}
+		dernierEquilibre = v;
+		dernierRegret = regret(v);
+		setTemperatureUsagers(v);
+	}
+
+	/**
+	 * Donne la rduction valeur aux paliers premier  dernier inclus de la
+	 * courbe de rduction courante, voir
+	 * {@link CourbeReduction#modifier(int, int, double)}. La courbe retouche
+	 * est dsigne par un alpha NaN, comme une courbe importe.
+	 * 
+	 * Avec la politique {@link Politique#MONTECARLO}, seuls les termes des
+	 * couples (usager, stratgie) dont la temprature tombe dans ces paliers
+	 * sont recalculs, et {@link #reanalyser()} ne rexamine d'abord que ces
+	 * usagers.
+	 * 
+	 * @throws IllegalStateException
+	 *             s'il n'y a pas de courbe de rduction.
+	 */
+	public void modifierCourbe(int premier, int dernier, double valeur) {
+		if (courbeReduction == null)
+			throw new IllegalStateException("Pas de courbe de rduction  modifier.");
+		courbeReduction.modifier(premier, dernier, valeur);
+		alphaCourbe = Double.NaN;
+		graineCourbe = courbeReduction.empreinte();
+
+		if (politique != Politique.MONTECARLO || evaluateur == null || !evaluateurAJour || !reductionsAJour) {
+			reductionsAJour = false;
+			return;
+		}
+		if (indexPaliers == null || indexPaliers.resolution != courbeReduction.resolution())
+			indexPaliers = new IndexPaliers(evaluateur, courbeReduction);
+		if (usagersModifies == null)
+			usagersModifies = new boolean[nombreUsagers];
+		evaluateur.calculerReductions(this, indexPaliers, premier, dernier, usagersModifies);
+	}
+
+	/**
+	 * Recherche un quilibre aprs une ou plusieurs retouches de la courbe
+	 * par {@link #modifierCourbe(int, int, double)}. Si le dernier quilibre
+	 * a t trouv par {@link Methode#MEILLEUREREPONSEINCREMENTALE}, la
+	 * recherche reprend l o elle s'tait arrte : seuls les usagers
+	 * touchs, puis ceux dont la facture sort de l'intervalle de stabilit,
+	 * sont rexamins. Sinon, on se ramne  {@link #analyse(int[])} en
+	 * partant du dernier quilibre.
+	 */
+	public void reanalyser() {
+		if (moteurIncremental == null || !evaluateurAJour || !reductionsAJour) {
+			analyse(dernierEquilibre);
 			return;
 		}
+
+		echeance = delai > 0 ? echeanceDans(delai) : Long.MAX_VALUE;
+		try {
+			int[] v = moteurIncremental.reprendre(usagersModifies, 10000);
+			Arrays.fill(usagersModifies, false);
+			dernierRegret = moteurIncremental.regretRendu();
+			if (v == null) {
+				// On ne reprendra pas une recherche inacheve.
+				v = moteurIncremental.meilleurProfil();
+				moteurIncremental = null;
+			}
+			dernierEquilibre = v.clone();
+			setTemperatureUsagers(v);
+		} finally {
+			echeance = Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Parcourt un fichier de tempratures ligne par ligne.
+	 */
+	private static class LecteurTemperatures implements Iterator<Double> {
+		private final BufferedReader lecteur;
+		private final String fichier;
+		private Double suivante;
+		/**
+		 * Le numro de la dernire ligne lue, pour signaler une ligne mal
+		 * forme.
+		 */
+		private int numero;
+
+		LecteurTemperatures(BufferedReader lecteur, String fichier) {
+			this.lecteur = lecteur;
+			this.fichier = fichier;
+			avancer();
+		}
+
+		private void avancer() {
+			suivante = null;
+			try {
+				String ligne;
+				while ((ligne = lecteur.readLine()) != null) {
+					numero++;
+					ligne = ligne.trim();
+					if (!ligne.isEmpty() && !ligne.startsWith("#")) {
+						try {
+							suivante = Double.parseDouble(ligne);
+						} catch (NumberFormatException e) {
+							throw new IOException("Ligne " + numero + " de " + fichier + " : temprature attendue, \""
+									+ ligne + "\" lu.", e);
+						}
+						return;
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return suivante != null;
+		}
+
+		@Override
+		public Double next() {
+			if (suivante == null)
+				throw new NoSuchElementException();
+			Double t = suivante;
+			avancer();
+			return t;
+		}
 	}
 
 	/**
@@ -584,28 +1895,28 @@ public class Logement {
 	 *            le vecteur de stratgie  tester.
 	 * @return vrai si le vecteur est un Nash pur, faux sinon.
 	 */
-	private boolean testMixedNash(int[] testNash) {
+	boolean testMixedNash(int[] testNash) {
 		double facture = factureIndividuelle(testNash);
+		EvaluateurUtilite e = evaluateur();
 
 		double utiliteMax;
 		int strategies[] = new int[nombreUsagers];
 		for (int i = 0; i < nombreUsagers; i++)
 			strategies[i] = testNash[i];
 
+		e.utilitesDeviation(0, nombreUsagers, testNash, facture, tamponUtilites);
+
 		double utilite[] = new double[nombreUsagers];
 		for (int i = 0; i < nombreUsagers; i++) {
-			utilite[i] = usagers[i].utiliteTotale(strategieToTemperature(testNash[i], usagers[i]), facture,
-					temperatureToReduction(strategieToTemperature(testNash[i], usagers[i])));
+			// Comme dans meilleureReponse, l'utilit actuelle est celle de
+			// la dviation vers la stratgie suivie.
+			utilite[i] = tamponUtilites[i * nombreStrategies + testNash[i]];
 
 			utiliteMax = utilite[i];
 
 			for (int k = 0; k < nombreStrategies; k++) {
 
-				double tmp = usagers[i].utiliteTotale(strategieToTemperature(k, usagers[i]),
-						facture - (consommationIndividuelle(strategieToTemperature(testNash[i], usagers[i]))
-								/ nombreUsagers)
-						+ (consommationIndividuelle(strategieToTemperature(k, usagers[i])) / nombreUsagers),
-						strategieToReduction(k, usagers[i]));
+				double tmp = tamponUtilites[i * nombreStrategies + k];
 
 				if (utiliteMax < tmp) {
 					strategies[i] = k;
@@ -625,7 +1936,10 @@ public class Logement {
 	 * initialise la fonction f telle que f(temprature normalise) = rduction.
 	 * Cette fonction est dfinie entre 0 et 1, est dcroissante dans cette
 	 * intervalle. Son domaine est R -> Y avec Y un ensemble discret de valeurs
-	 * comprises entre 0 et 1. Y contient {@link #PAS_COURBE_REDUCTION} valeurs.
+	 * comprises entre 0 et 1. Y contient au plus
+	 * {@link #GRANULARITE_COURBE_REDUCTION} + 1 valeurs, rparties sur
+	 * {@link #resolutionCourbe} paliers. La courbe prcdente est rutilise
+	 * si elle a la mme rsolution.
 	 * 
 	 * @param max
 	 *            f(0) = max. f(1) = 0.
@@ -633,30 +1947,13 @@ public class Logement {
 	 *            la seed utilise pour gnrer alatoirement la courbe.
 	 */
 	public void setCourbeReduction(double max, long seed) {
-		Random r = new Random(seed);
-
-		// On initialise la courbe pour qu'elle reste  0 sur [0, 1].
-		courbeReduction = new double[PAS_COURBE_REDUCTION];
-		for (int i = 0; i < PAS_COURBE_REDUCTION; i++)
-			courbeReduction[i] = 0;
-
-		// On choisit des morceaux de courbes et on incrmente leur ordonne.
-		for (int i = 0; i < GRANULARITE_COURBE_REDUCTION; i++)
-			courbeReduction[r.nextInt(PAS_COURBE_REDUCTION)]++;
-
-		// On incrmente chaque morceau de courbe de sorte que son ordonne  la
-		// fin de l'tape prcdente soit gale  la diffrence d'ordonne avec
-		// son voisin de droite  la fin de cette tape. On obtient une courbe
-		// dcroissante telle que f(0) = GRANULARITE_COURBE_REDUCTION et f(1) =
-		// 0.
-		for (int i = PAS_COURBE_REDUCTION - 1; i > 0; i--)
-			courbeReduction[i - 1] += courbeReduction[i];
+		alphaCourbe = max;
+		graineCourbe = seed;
+		reductionsAJour = false;
 
-		// On divise les ordonnes de chaque morceau de courbe
-		// proporionnellement pour obtenir une courbe dcroissante telle que
-		// f(0) = max.
-		for (int i = 0; i < PAS_COURBE_REDUCTION; i++)
-			courbeReduction[i] /= GRANULARITE_COURBE_REDUCTION / max;
+		if (courbeReduction == null || courbeReduction.resolution() != resolutionCourbe)
+			courbeReduction = new CourbeReduction(resolutionCourbe, GRANULARITE_COURBE_REDUCTION);
+		courbeReduction.generer(max, seed);
 	}
 
 	/**
@@ -672,45 +1969,398 @@ public class Logement {
 	 * @param testParAlphaVal
 	 *            Pour chaque maximum, on teste ce nombre de fonctions
 	 *            distinctes.
+	 * @param out
+	 *            reoit la meilleure courbe et, si on utilise un
+	 *            {@link Substitut}, son bilan.
 	 */
 	public void monteCarlo(int alphaDistincts, int testParAlphaVal, PrintStream out) {
-		Politique pol = politique;
-		setPolitique(Politique.AUCUNEREDUCTION);
-		analyse();
-		double coutMin = coutProprietaire();
-		setPolitique(pol);
+		monteCarlo(alphaDistincts, testParAlphaVal, out, null);
+	}
+
+	/**
+	 * Comme {@link #monteCarlo(int, int, PrintStream)}, en publiant chaque
+	 * courbe qui bat les prcdentes ds qu'on la trouve, en commenant par
+	 * l'absence de rduction. Si l'abonn annule son abonnement, la recherche
+	 * s'arrte et on retient la meilleure courbe trouve jusque-l, sans la
+	 * mettre en cache.
+	 * 
+	 * @param abonne
+	 *            reoit les amliorations, dans la tche qui mne la recherche
+	 *            ou dans celle qui les demande. null si personne ne les suit.
+	 */
+	public void monteCarlo(int alphaDistincts, int testParAlphaVal, PrintStream out, Abonne<Amelioration> abonne) {
+		// La recherche tire ses graines dans son propre flux.
+		SourceAleatoire rand = alea.separer();
+		Diffusion<Amelioration> diffusion = abonne == null ? null : new Diffusion<>(abonne);
 
-		double cout;
-		long seed;
 		long bestSeed = 0;
 		double bestAlpha = 0;
-		Random rand = new java.util.Random();
 
-		// On cherche la courbe offrant le meilleur rsultat.
-		// Pour chaque valeur de alpha = k / alphaDistincts,
-		for (int k = 1; k <= alphaDistincts; k++)
+		String description = empreinte("montecarlo " + alphaDistincts + " " + testParAlphaVal, rand);
+		if (demarrageAChaud)
+			description += ";chaud";
+		if (substitut)
+			description += ";substitut";
+		if (courbeImportee != null)
+			description += ";importee=" + courbeImportee.empreinte();
+
+		String empreinte = null;
+		List<String> memorise = null;
+		if (cache != null) {
+			empreinte = description;
+			memorise = cache.lire(empreinte);
+		}
+
+		if (memorise != null && memorise.size() == 1) {
+			String[] resultat = memorise.get(0).split(" ");
+			bestAlpha = Double.parseDouble(resultat[0]);
+			bestSeed = Long.parseLong(resultat[1]);
+			if (diffusion != null)
+				diffusion.publier(amelioration(bestAlpha, bestSeed, Double.parseDouble(resultat[2]),
+						alphaDistincts * testParAlphaVal));
+		} else {
+			try {
+				double coutMin;
+				int premierAlpha = 1;
+				int premierTest = 0;
+				int evaluations = 0;
+
+				// On reprend si possible l o la mme recherche s'tait arrte.
+				PointDeReprise reprise = fichierReprise == null ? null
+						: PointDeReprise.lire(fichierReprise, description, PointDeReprise.MONTECARLO);
+				if (reprise != null) {
+					rand.restaurer(reprise.etatTirage);
+					premierAlpha = reprise.alpha;
+					premierTest = reprise.test;
+					evaluations = reprise.evaluations;
+					coutMin = reprise.coutMin;
+					bestAlpha = reprise.meilleurAlpha;
+					bestSeed = reprise.meilleureGraine;
+					dernierEquilibre = reprise.equilibre;
+				} else {
+					Logement reference = analyseSansReduction(rand);
+					coutMin = reference.coutProprietaire();
+					dernierEquilibre = reference.dernierEquilibre;
+
+					// Une courbe importe sert de point de dpart si elle bat
+					// l'absence de rduction.
+					if (courbeImportee != null) {
+						utiliserCourbeImportee();
+						resoudre(rand, depart());
+						if (coutProprietaire() < coutMin) {
+							coutMin = coutProprietaire();
+							bestAlpha = Double.NaN;
+						}
+					}
+				}
+				Substitut estimateur = substitut ? new Substitut(this) : null;
+				if (diffusion != null)
+					diffusion.publier(amelioration(bestAlpha, bestSeed, coutMin, evaluations));
+
+				double cout;
+				long seed;
+
+				// On cherche la courbe offrant le meilleur rsultat.
+				// Pour chaque valeur de alpha = k / alphaDistincts,
+				recherche: for (int k = premierAlpha; k <= alphaDistincts; k++)
+
+					// On teste un certain nombre de fonctions de rduction
+					// distinctes.
+					for (int i = k == premierAlpha ? premierTest : 0; i < testParAlphaVal; i++) {
+						if (diffusion != null && diffusion.annulee())
+							break recherche;
+						if (repriseDue()) {
+							PointDeReprise p = new PointDeReprise(description, PointDeReprise.MONTECARLO);
+							p.etatTirage = rand.etat();
+							p.alpha = k;
+							p.test = i;
+							p.evaluations = evaluations;
+							p.coutMin = coutMin;
+							p.meilleurAlpha = bestAlpha;
+							p.meilleureGraine = bestSeed;
+							p.equilibre = dernierEquilibre;
+							ecrireReprise(p);
+						}
+						evaluations++;
+
+						// On gnre une fonction.
+						seed = rand.nextLong();
+						setCourbeReduction(k / (double) alphaDistincts, seed);
+
+						// On carte la fonction si on estime qu'elle ne peut pas
+						// battre la meilleure.
+						double[] x = null;
+						double estimation = Double.NaN;
+						if (estimateur != null) {
+							x = estimateur.caracteristiques();
+							estimation = estimateur.estimer(x);
+							if (estimateur.ecarter(estimation, coutMin))
+								continue;
+						}
+
+						// On analyse la situation, en partant si possible de
+						// l'quilibre trouv pour la fonction prcdente.
+						resoudre(rand, depart());
+						cout = coutProprietaire();
+						if (estimateur != null)
+							estimateur.apprendre(x, estimation, cout);
+
+						// On mmorise la meilleure fonction.
+						if (cout < coutMin) {
+							coutMin = cout;
+							bestAlpha = k / (double) alphaDistincts;
+							bestSeed = seed;
+							if (diffusion != null)
+								diffusion.publier(amelioration(bestAlpha, bestSeed, coutMin, evaluations));
+						}
+					}
+
+				boolean complete = diffusion == null || !diffusion.annulee();
+				if (empreinte != null && complete)
+					cache.ecrire(empreinte, Collections.singletonList(bestAlpha + " " + bestSeed + " " + coutMin));
+				if (fichierReprise != null && complete)
+					supprimerReprise();
+				if (estimateur != null)
+					out.println(estimateur.rapport());
+			} catch (Throwable e) {
+				// Y compris une Error, sans quoi l'abonn attendrait sans fin.
+				if (diffusion != null)
+					diffusion.echouer(e);
+				throw e;
+			}
+		}
+
+		retenirCourbe(bestAlpha, bestSeed, out);
+		if (diffusion != null)
+			diffusion.terminer();
+	}
+
+	/**
+	 * @return une amlioration portant sa propre copie de la courbe, que la
+	 *         recherche peut continuer  modifier.
+	 */
+	private Amelioration amelioration(double alpha, long graine, double cout, int evaluations) {
+		return new Amelioration(alpha, graine, cout, evaluations, courbe(alpha, graine));
+	}
+
+	/**
+	 * @return une nouvelle courbe de paramtres alpha et graine, ou une
+	 *         copie de {@link #courbeImportee} si alpha est NaN.
+	 */
+	private CourbeReduction courbe(double alpha, long graine) {
+		if (Double.isNaN(alpha))
+			return courbeImportee.copie();
+		CourbeReduction courbe = new CourbeReduction(resolutionCourbe, GRANULARITE_COURBE_REDUCTION);
+		courbe.generer(alpha, graine);
+		return courbe;
+	}
+
+	/**
+	 * Comme {@link #monteCarlo(int, int, PrintStream)}, mais au lieu de
+	 * tester autant de fonctions pour chaque valeur de alpha, on concentre
+	 * les tests sur les valeurs prometteuses par divisions successives : 
+	 * chaque tour, chaque valeur de alpha encore en lice reoit la mme part
+	 * du budget, puis on limine la moiti la moins bonne, juge sur le
+	 * meilleur cot obtenu. La dernire valeur en lice reoit le reste du
+	 * budget.
+	 * 
+	 * @param alphaDistincts
+	 *            le nombre de valeurs de alpha, rparties quitablement entre
+	 *            0 et 1.
+	 * @param budget
+	 *            le nombre total de fonctions  tester. Avec budget =
+	 *            alphaDistincts * testParAlphaVal, on fait autant d'analyses
+	 *            que {@link #monteCarlo(int, int, PrintStream)}.
+	 * @param out
+	 *            reoit, pour chaque valeur de alpha, le nombre de fonctions
+	 *            testes et le meilleur cot obtenu.
+	 * @throws IllegalArgumentException
+	 *             si alphaDistincts ou budget est infrieur  1.
+	 */
+	public void monteCarloAdaptatif(int alphaDistincts, int budget, PrintStream out) {
+		if (alphaDistincts < 1 || budget < 1)
+			throw new IllegalArgumentException(
+					"Il faut au moins une valeur de alpha et une fonction  tester : alphaDistincts = "
+							+ alphaDistincts + ", budget = " + budget + ".");
+		SourceAleatoire rand = alea.separer();
 
-			// On teste un certain nombre de fonctions de rduction distinctes.
-			for (int i = 0; i < testParAlphaVal; i++) {
+		Logement reference = analyseSansReduction(rand);
+		double coutMin = reference.coutProprietaire();
+		dernierEquilibre = reference.dernierEquilibre;
 
-				// On gnre une fonction.
-				seed = rand.nextLong();
-				setCourbeReduction(k / (double) alphaDistincts, seed);
+		long bestSeed = 0;
+		double bestAlpha = 0;
 
-				// On analyse la situation.
-				analyse();
-				cout = coutProprietaire();
+		// Pour chaque valeur de alpha : le nombre de fonctions testes et le
+		// meilleur cot obtenu.
+		int[] depense = new int[alphaDistincts + 1];
+		double[] meilleurCout = new double[alphaDistincts + 1];
+		Arrays.fill(meilleurCout, Double.POSITIVE_INFINITY);
 
-				// On mmorise la meilleure fonction.
-				if (cout < coutMin) {
-					coutMin = cout;
-					bestAlpha = k / (double) alphaDistincts;
-					bestSeed = seed;
+		List<Integer> enLice = new ArrayList<>();
+		for (int k = 1; k <= alphaDistincts; k++)
+			enLice.add(k);
+
+		int tours = 1;
+		while ((1 << (tours - 1)) < alphaDistincts)
+			tours++;
+
+		int restant = budget;
+		for (int tour = 0; tour < tours && restant > 0; tour++) {
+
+			// Au dernier tour, on dpense tout ce qui reste.
+			int parAlpha = tour == tours - 1 ? restant / enLice.size()
+					: Math.max(1, budget / (tours * enLice.size()));
+
+			for (int k : enLice)
+				for (int i = 0; i < parAlpha && restant > 0; i++, restant--) {
+					long seed = rand.nextLong();
+					setCourbeReduction(k / (double) alphaDistincts, seed);
+					resoudre(rand, depart());
+					double cout = coutProprietaire();
+					depense[k]++;
+
+					if (cout < meilleurCout[k])
+						meilleurCout[k] = cout;
+					if (cout < coutMin) {
+						coutMin = cout;
+						bestAlpha = k / (double) alphaDistincts;
+						bestSeed = seed;
+					}
 				}
+
+			// On garde la meilleure moiti des valeurs de alpha.
+			enLice.sort(Comparator.comparingDouble(k -> meilleurCout[k]));
+			enLice = new ArrayList<>(enLice.subList(0, (enLice.size() + 1) / 2));
+		}
+
+		for (int k = 1; k <= alphaDistincts; k++)
+			out.println("alpha " + k / (double) alphaDistincts + " : " + depense[k] + " fonctions testes, meilleur cot "
+					+ meilleurCout[k]);
+
+		retenirCourbe(bestAlpha, bestSeed, out);
+	}
+
+	/**
+	 * Teste des courbes de rduction comme
+	 * {@link #monteCarlo(int, int, PrintStream)}, mais au lieu de ne garder que
+	 * celle de moindre cot pour le propritaire, on garde toutes celles
+	 * qu'aucune autre ne bat  la fois sur le cot, la consommation totale et
+	 * le confort moyen. Les courbes sont rparties entre plusieurs tches
+	 * parallles, chacune analysant sa propre copie du logement.
+	 * 
+	 * @param alphaDistincts
+	 *            voir {@link #monteCarlo(int, int, PrintStream)}.
+	 * @param testParAlphaVal
+	 *            voir {@link #monteCarlo(int, int, PrintStream)}.
+	 * @param nombreTaches
+	 *            le nombre de tches parallles.
+	 * @return la frontire de Pareto des courbes testes. Si l'analyse d'une
+	 *         courbe choue, l'exception est relance au lieu de rendre une
+	 *         frontire incomplte.
+	 */
+	public FrontierePareto frontierePareto(int alphaDistincts, int testParAlphaVal, int nombreTaches) {
+		SourceAleatoire rand = alea.separer();
+
+		// On tire toutes les courbes  l'avance pour que le rsultat ne
+		// dpende pas de l'ordonnancement des tches.
+		int n = alphaDistincts * testParAlphaVal;
+		double[] alphas = new double[n];
+		long[] graines = new long[n];
+		for (int k = 1, c = 0; k <= alphaDistincts; k++)
+			for (int i = 0; i < testParAlphaVal; i++, c++) {
+				alphas[c] = k / (double) alphaDistincts;
+				graines[c] = rand.nextLong();
 			}
 
+		ExecutorService taches = Executors.newFixedThreadPool(nombreTaches);
+		List<Future<FrontierePareto>> resultats = new ArrayList<>();
+		for (int t = 0; t < nombreTaches; t++) {
+			Logement copie = new Logement(this, rand.separer());
+			copie.setPolitique(Politique.MONTECARLO);
+			int premier = t;
+
+			resultats.add(taches.submit(() -> {
+				FrontierePareto frontiere = new FrontierePareto();
+				for (int c = premier; c < n; c += nombreTaches) {
+					copie.setCourbeReduction(alphas[c], graines[c]);
+					copie.resoudre(copie.alea);
+					frontiere.ajouter(new FrontierePareto.Point(copie.coutProprietaire(), copie.consommationTotale(),
+							copie.confortMoyen(), alphas[c], graines[c]));
+				}
+				return frontiere;
+			}));
+		}
+		taches.shutdown();
+
+		FrontierePareto frontiere = new FrontierePareto();
+		try {
+			for (Future<FrontierePareto> r : resultats)
+				frontiere.fusionner(attendre(r));
+		} finally {
+			taches.shutdownNow();
+		}
+		return frontiere;
+	}
+
+	/**
+	 * Attend la fin d'une tche lance par
+	 * {@link #frontierePareto(int, int, int)} ou ses semblables.
+	 * 
+	 * @return le rsultat de la tche r.
+	 * @throws RuntimeException
+	 *             ou Error : celle leve par la tche, relance telle quelle.
+	 */
+	private static <T> T attendre(Future<T> r) {
+		try {
+			return r.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Attente interrompue.", e);
+		}
+	}
+
+	/**
+	 * Analyse une copie du logement sur laquelle le gestionnaire n'accorde
+	 * aucune rduction. Le logement lui-mme n'est pas modifi.
+	 * 
+	 * @param tirage
+	 *            la source alatoire de l'analyse.
+	 * @return la copie analyse.
+	 */
+	private Logement analyseSansReduction(SourceAleatoire tirage) {
+		Logement reference = new Logement(this, tirage);
+		reference.setPolitique(Politique.AUCUNEREDUCTION);
+		reference.resoudre(tirage);
+		return reference;
+	}
+
+	/**
+	 * @return le vecteur de dpart de l'analyse d'une courbe lors d'une
+	 *         recherche de courbe de rduction, voir {@link #demarrageAChaud}.
+	 */
+	private int[] depart() {
+		return demarrageAChaud ? dernierEquilibre : null;
+	}
+
+	/**
+	 * Recre la meilleure courbe trouve par une recherche et l'crit dans
+	 * courbe_de_reduction.txt.
+	 */
+	private void retenirCourbe(double bestAlpha, long bestSeed, PrintStream out) {
+
 		// On recr la meilleure fonction mmorise.
-		setCourbeReduction(bestAlpha, bestSeed);
+		if (Double.isNaN(bestAlpha))
+			utiliserCourbeImportee();
+		else
+			setCourbeReduction(bestAlpha, bestSeed);
 
 		// On crit dans un ficher texte les coordonnes des points dcrivant la
 		// meilleure courbe dans le format :  chaque ligne, un couple
@@ -718,31 +2368,194 @@ public class Logement {
 		PrintWriter pw;
 		try {
 			pw = new PrintWriter("courbe_de_reduction.txt");
-			for (int i = 0; i < PAS_COURBE_REDUCTION; i++)
-				pw.println(Usager.TEMPERATURE_MINIMALE
-						+ (TEMPERATURE_MAX - Usager.TEMPERATURE_MINIMALE) * i / PAS_COURBE_REDUCTION + " "
-						+ courbeReduction[i]);
+			int j = 0;
+			for (int i = 0; i < courbeReduction.resolution(); i++) {
+				if (j + 1 < courbeReduction.nombreMorceaux() && courbeReduction.debut(j + 1) == i)
+					j++;
+				pw.println(courbeReduction.temperature(i) + " " + courbeReduction.valeur(j));
+			}
 			pw.close();
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 		}
 
-		out.println("Alpha " + bestAlpha + ", Seed " + bestSeed);
+		out.println(Double.isNaN(bestAlpha) ? "Courbe importe" : "Alpha " + bestAlpha + ", Seed " + bestSeed);
+	}
+
+	/**
+	 * @param calcul
+	 *            le nom du calcul dont on veut mmoriser le rsultat.
+	 * @param tirage
+	 *            la source alatoire utilise par le calcul.
+	 * @return une description canonique du scnario : deux scnarios de mme
+	 *         empreinte donnent le mme rsultat.
+	 */
+	private String empreinte(String calcul, SourceAleatoire tirage) {
+		StringBuilder e = new StringBuilder(calcul);
+		e.append(";version=").append(VERSION_CALCUL);
+		e.append(";strategies=").append(nombreStrategies);
+		e.append(";ecolos=").append(nombreEcolos);
+		e.append(";pollueurs=").append(nombrePollueurs);
+		e.append(";voyageurs=").append(nombreVoyageurs);
+		e.append(";fous=").append(nombreFous);
+		e.append(";exterieure=").append(temperatureExterieure);
+		e.append(";politique=").append(politique);
+		e.append(";methode=").append(methode);
+		e.append(";resolution=").append(resolutionCourbe);
+		if (epsilon > 0)
+			e.append(";epsilon=").append(epsilon);
+
+		// Les paramtres des fous dpendent de la graine du logement, les
+		// stratgies tires par LRI et les courbes testes par Monte-Carlo de
+		// la source du calcul.
+		if (nombreFous > 0)
+			e.append(";graine=").append(alea.graine());
+		if (methode == Methode.LRI || calcul.startsWith("montecarlo"))
+			e.append(";tirage=").append(tirage.graine());
+
+		return e.toString();
+	}
+
+	private static String ecrire(double[] valeurs) {
+		StringBuilder s = new StringBuilder();
+		for (double v : valeurs)
+			s.append(s.length() == 0 ? "" : " ").append(v);
+		return s.toString();
+	}
+
+	private static String ecrire(int[] valeurs) {
+		StringBuilder s = new StringBuilder();
+		for (int v : valeurs)
+			s.append(s.length() == 0 ? "" : " ").append(v);
+		return s.toString();
+	}
+
+	private static double[] lireReels(String ligne) {
+		return Arrays.stream(ligne.split(" ")).mapToDouble(Double::parseDouble).toArray();
+	}
+
+	private static int[] lireEntiers(String ligne) {
+		return Arrays.stream(ligne.split(" ")).mapToInt(Integer::parseInt).toArray();
 	}
 
 	/**
-	 * @return le gain d'argent obtenu grce  la rduction.
+	 * crit le comportement des usagers avec et sans rduction, puis le gain
+	 * d'argent obtenu grce  la rduction. Si l'analyse sans rduction
+	 * choue, son exception est relance plutt que d'omettre le gain.
 	 */
 	public void comparerSansReduction(PrintStream sortie) {
 		double cmp;
+
+		// La copie sans rduction est analyse dans une autre tche pendant
+		// que l'on analyse le logement, avec les mmes termes de confort et
+		// de consommation.
+		Logement reference = new Logement(this, alea.separer());
+		reference.setPolitique(Logement.Politique.AUCUNEREDUCTION);
+		partagerEvaluateur(Arrays.asList(this, reference));
+		ExecutorService tache = Executors.newSingleThreadExecutor();
+		Future<?> analyseReference = tache.submit(() -> reference.analyse());
+		tache.shutdown();
+
 		analyse();
 		afficherConsommation(sortie);
 		cmp = coutProprietaire();
-		setPolitique(Logement.Politique.AUCUNEREDUCTION);
-		analyse();
+		attendre(analyseReference);
 		sortie.println("Comportements des usagers sans rduction : ");
-		afficherConsommation(sortie);
-		sortie.println("gain d  la rduction " + (coutProprietaire() - cmp));
+		reference.afficherConsommation(sortie);
+		sortie.println("gain d  la rduction " + (reference.coutProprietaire() - cmp));
+	}
+
+	/**
+	 * Analyse le logement avec chacune des variantes, rparties entre
+	 * plusieurs tches parallles. Chaque variante est analyse sur sa propre
+	 * copie du logement ; les termes des utilits qui ne dpendent pas de la
+	 * politique, comme le confort et la consommation de chaque stratgie, ne
+	 * sont calculs qu'une fois et partags en lecture seule entre les
+	 * copies.
+	 * 
+	 * @param variantes
+	 *            des scnarios dcrivant le mme logement que
+	 *            {@link #scenario()},  la politique,  la mthode et  la
+	 *            courbe de rduction prs. Une variante sans courbe garde
+	 *            celle du logement.
+	 * @param nombreTaches
+	 *            le nombre de tches parallles.
+	 * @return les rsultats de chaque variante.
+	 * @throws IllegalArgumentException
+	 *             si une variante dcrit un autre logement, ou suit la
+	 *             politique {@link Politique#MONTECARLO} sans courbe de
+	 *             rduction.
+	 * @throws RuntimeException
+	 *             ou Error : celle leve par l'analyse d'une variante. Aucune
+	 *             variante n'est omise en silence.
+	 */
+	public Comparaison comparer(List<Scenario> variantes, int nombreTaches) {
+		SourceAleatoire rand = alea.separer();
+
+		// On prpare toutes les copies avant de lancer les tches pour que le
+		// rsultat ne dpende pas de leur ordonnancement.
+		List<Logement> copies = new ArrayList<>();
+		for (Scenario v : variantes) {
+			if (v.nombreStrategies() != nombreStrategies || v.nombreEcolos() != nombreEcolos
+					|| v.nombrePollueurs() != nombrePollueurs || v.nombreVoyageurs() != nombreVoyageurs
+					|| v.nombreFous() != nombreFous || v.graine() != alea.graine()
+					|| v.temperatureExterieure() != temperatureExterieure)
+				throw new IllegalArgumentException("La variante ne dcrit pas le mme logement.");
+
+			Logement copie = new Logement(this, rand.separer());
+			copie.setPolitique(v.politique());
+			copie.setMethode(v.methode());
+			copie.setResolutionCourbe(v.resolutionCourbe());
+			if (v.courbe())
+				copie.setCourbeReduction(v.alphaCourbe(), v.graineCourbe());
+			if (copie.politique == Politique.MONTECARLO && copie.courbeReduction == null)
+				throw new IllegalArgumentException("La variante " + v.politique() + " n'a pas de courbe de rduction.");
+			copies.add(copie);
+		}
+		if (copies.isEmpty())
+			return new Comparaison();
+		partagerEvaluateur(copies);
+
+		ExecutorService taches = Executors.newFixedThreadPool(nombreTaches);
+		List<Future<Comparaison.Resultat>> resultats = new ArrayList<>();
+		for (int c = 0; c < copies.size(); c++) {
+			Logement copie = copies.get(c);
+			Scenario variante = variantes.get(c);
+
+			resultats.add(taches.submit(() -> {
+				long debut = System.nanoTime();
+				copie.resoudre(copie.alea);
+				return new Comparaison.Resultat(variante, copie.coutProprietaire(), copie.consommationTotale(),
+						copie.confortMoyen(), copie.dernierRegret, (System.nanoTime() - debut) / 1000000);
+			}));
+		}
+		taches.shutdown();
+
+		Comparaison comparaison = new Comparaison();
+		try {
+			for (Future<Comparaison.Resultat> r : resultats)
+				comparaison.ajouter(attendre(r));
+		} finally {
+			taches.shutdownNow();
+		}
+		return comparaison;
+	}
+
+	/**
+	 * Donne  chaque logement de copies, sauf le premier, un valuateur qui
+	 * partage les termes de celui du premier qui ne dpendent pas de la
+	 * politique. Tous doivent contenir les mmes usagers  la mme
+	 * temprature extrieure. Le premier ne doit pas changer de temprature
+	 * extrieure tant que les autres sont analyss.
+	 */
+	private static void partagerEvaluateur(List<Logement> copies) {
+		EvaluateurUtilite commun = copies.get(0).evaluateur();
+		for (Logement copie : copies.subList(1, copies.size())) {
+			copie.evaluateur = new EvaluateurUtilite(commun, copie);
+			copie.tamponUtilites = new double[copie.nombreUsagers * copie.nombreStrategies];
+			copie.evaluateurAJour = true;
+			copie.reductionsAJour = true;
+		}
 	}
 
 	/**
@@ -763,11 +2576,6 @@ public class Logement {
 	 *            bas)
 	 */
 	public void drawCourbeReduction(Graphics g, int abcisse, int ordonnee, Color c, int width, int height) {
-		g.setColor(c);
-		for (int i = 1; i < PAS_COURBE_REDUCTION; i++)
-			g.drawLine(abcisse + i * (width - abcisse) / PAS_COURBE_REDUCTION,
-					(height - ordonnee) - (int) (courbeReduction[i] * (height - ordonnee)),
-					abcisse + (i - 1) * (width - abcisse) / PAS_COURBE_REDUCTION,
-					(height - ordonnee) - (int) (courbeReduction[i - 1] * (height - ordonnee)));
+		courbeReduction.dessiner(g, abcisse, ordonnee, c, width, height);
 	}
 }
@@ -0,0 +1,191 @@
+package logement;
+
+import java.util.Arrays;
+
+import usager.Usager;
+
+/**
+ * Recherche d'un quilibre lorsque chaque usager choisit librement sa
+ * temprature entre {@link Usager#TEMPERATURE_MINIMALE} et sa temprature
+ * idale.
+ * 
+ * Les usagers cherchent leur meilleure rponse  tour de rle, jusqu' ce
+ * qu'aucun ne bouge plus de {@link #PRECISION}. Sur cet intervalle,
+ * l'utilit d'un usager est rgulire sauf aux tempratures o la rduction
+ * change de palier et  celle o la consommation totale franchit le seuil
+ * {@link Logement#seuilConsommation()}. On dcoupe donc l'intervalle en ces
+ * points et on cherche le maximum de chaque morceau par la mthode du nombre
+ * d'or : une meilleure rponse cote de l'ordre de log(1 / PRECISION)
+ * valuations par morceau. Ce cot ne dpend pas du nombre de stratgies des
+ * mthodes discrtes, et ne crot qu'avec le logarithme de la prcision.
+ * 
+ * Contrairement aux mthodes discrtes, la facture d'une dviation est
+ * recalcule exactement  partir de la consommation totale.
+ */
+class MeilleureReponseContinue {
+
+	/**
+	 * La prcision, en C, avec laquelle on cherche les tempratures.
+	 */
+	static final double PRECISION = 1e-6;
+
+	/**
+	 * 1 / nombre d'or.
+	 */
+	private static final double INVERSE_OR = (Math.sqrt(5) - 1) / 2;
+
+	private final Logement logement;
+	private final int nombreUsagers;
+
+	/**
+	 * Les tempratures auxquelles la rduction change de valeur.
+	 */
+	private final double[] discontinuites;
+
+	private final double[] temperatures;
+	private double consommationTotale;
+	/**
+	 * Le plus grand gain d'utilit obtenu par un usager lors du dernier tour.
+	 */
+	private double regret = Double.NaN;
+
+	MeilleureReponseContinue(Logement logement) {
+		this.logement = logement;
+		nombreUsagers = logement.nombreUsagers();
+		discontinuites = logement.discontinuitesReduction();
+		temperatures = new double[nombreUsagers];
+	}
+
+	/**
+	 * @param nombreIterations
+	 *            le nombre maximal de tours pendant lesquels chaque usager
+	 *            cherche sa meilleure rponse.
+	 * @return la temprature choisie par chaque usager  l'quilibre, ou
+	 *         ds qu'aucun usager n'a gagn plus de
+	 *         {@link Logement#epsilon()} en un tour. Si les usagers bougent
+	 *         encore au bout de nombreIterations tours ou  l'expiration du
+	 *         dlai de l'analyse, les tempratures atteintes, le gain restant
+	 *         tant donn par {@link #regret()}.
+	 */
+	double[] resoudre(int nombreIterations) {
+		consommationTotale = 0;
+		for (int i = 0; i < nombreUsagers; i++) {
+			temperatures[i] = Usager.TEMPERATURE_MINIMALE;
+			consommationTotale += logement.consommationIndividuelle(temperatures[i]);
+		}
+
+		for (int n = 0; n < nombreIterations; n++) {
+			double deplacementMax = 0;
+			regret = 0;
+			for (int i = 0; i < nombreUsagers; i++) {
+				double t = meilleureReponse(i);
+				deplacementMax = Math.max(deplacementMax, Math.abs(t - temperatures[i]));
+				Usager u = logement.usager(i);
+				double consommationAutres = consommationTotale - logement.consommationIndividuelle(temperatures[i]);
+				regret = Math.max(regret,
+						utilite(u, t, consommationAutres) - utilite(u, temperatures[i], consommationAutres));
+				consommationTotale += logement.consommationIndividuelle(t)
+						- logement.consommationIndividuelle(temperatures[i]);
+				temperatures[i] = t;
+			}
+			if (deplacementMax < PRECISION || (regret <= logement.epsilon() && logement.epsilon() > 0)
+					|| logement.horsDelai())
+				return temperatures.clone();
+		}
+		return temperatures.clone();
+	}
+
+	/**
+	 * @return le plus grand gain qu'un usager a obtenu en changeant de
+	 *         temprature lors du dernier tour de {@link #resoudre(int)}.
+	 *         Chaque usager rpondant aux tempratures dj mises  jour des
+	 *         prcdents, c'est une estimation du regret des tempratures
+	 *         rendues.
+	 */
+	double regret() {
+		return regret;
+	}
+
+	/**
+	 * @return la temprature qui maximise l'utilit de l'usager i, les
+	 *         autres usagers gardant leur temprature.
+	 */
+	private double meilleureReponse(int i) {
+		Usager u = logement.usager(i);
+		double consommationAutres = consommationTotale - logement.consommationIndividuelle(temperatures[i]);
+		double bas = Usager.TEMPERATURE_MINIMALE;
+		double haut = u.temperatureIdeale();
+
+		// Les bornes des morceaux rguliers : les changements de palier de la
+		// rduction et la temprature  laquelle la facture se met  crotre.
+		// (bas - consommationIndividuelle(bas) est la temprature extrieure.)
+		double[] bornes = Arrays.copyOf(discontinuites, discontinuites.length + 2);
+		bornes[discontinuites.length] = logement.seuilConsommation() - consommationAutres
+				+ (bas - logement.consommationIndividuelle(bas));
+		bornes[discontinuites.length + 1] = haut;
+		Arrays.sort(bornes);
+
+		double meilleure = bas;
+		double utiliteMax = utilite(u, bas, consommationAutres);
+		double debut = bas;
+		for (double fin : bornes) {
+			if (fin <= debut)
+				continue;
+			if (fin > haut)
+				fin = haut;
+
+			// La rduction peut baisser exactement en fin, on s'arrte donc
+			// juste avant.
+			double t = nombreDOr(u, debut, Math.max(debut, fin - PRECISION), consommationAutres);
+			double tmp = utilite(u, t, consommationAutres);
+			if (utiliteMax < tmp) {
+				meilleure = t;
+				utiliteMax = tmp;
+			}
+
+			tmp = utilite(u, fin, consommationAutres);
+			if (utiliteMax < tmp) {
+				meilleure = fin;
+				utiliteMax = tmp;
+			}
+
+			debut = fin;
+			if (debut >= haut)
+				break;
+		}
+		return meilleure;
+	}
+
+	/**
+	 * Cherche le maximum de l'utilit de u sur [a, b] par la mthode du
+	 * nombre d'or.
+	 */
+	private double nombreDOr(Usager u, double a, double b, double consommationAutres) {
+		double c = b - INVERSE_OR * (b - a);
+		double d = a + INVERSE_OR * (b - a);
+		double uc = utilite(u, c, consommationAutres);
+		double ud = utilite(u, d, consommationAutres);
+
+		while (b - a > PRECISION) {
+			if (uc > ud) {
+				b = d;
+				d = c;
+				ud = uc;
+				c = b - INVERSE_OR * (b - a);
+				uc = utilite(u, c, consommationAutres);
+			} else {
+				a = c;
+				c = d;
+				uc = ud;
+				d = a + INVERSE_OR * (b - a);
+				ud = utilite(u, d, consommationAutres);
+			}
+		}
+		return (a + b) / 2;
+	}
+
+	private double utilite(Usager u, double temperature, double consommationAutres) {
+		double facture = logement.facture(consommationAutres + logement.consommationIndividuelle(temperature));
+		return u.utiliteTotale(temperature, facture, logement.temperatureToReduction(temperature));
+	}
+}
@@ -0,0 +1,326 @@
+package logement;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Recherche d'un Nash pur par meilleure rponse, en ne rexaminant que les
+ * usagers dont la meilleure rponse a pu changer.
+ * 
+ * Les stratgies des autres usagers n'influencent un usager qu' travers la
+ * facture, qui ne dpend que de la consommation totale. Lorsqu'on examine un
+ * usager, on mmorise l'cart entre l'utilit de sa meilleure stratgie et
+ * celle de la suivante. On en dduit un intervalle de factures dans lequel sa
+ * meilleure rponse ne peut pas changer. Les usagers sont ensuite rangs dans
+ * deux tas selon les bornes de leur intervalle : quand un usager change de
+ * stratgie, on ne remet en file d'attente que ceux dont l'intervalle ne
+ * contient plus la nouvelle facture. Un usager insensible au prix du chauffage
+ * n'est ainsi examin qu'une fois.
+ * 
+ * Les utilits sont calcules exactement comme dans
+ * {@link Logement#meilleureReponse(int[], int)}, si bien qu'un quilibre
+ * trouv ici en est aussi un pour {@link Logement#testMixedNash(int[])}.
+ * 
+ * Une fois un quilibre trouv, l'intervalle de stabilit d'un usager reste
+ * valable tant que ses utilits ne changent pas. Aprs une retouche de la
+ * courbe de rduction, {@link #reprendre(boolean[], int)} repart donc de
+ * l'quilibre en n'examinant d'abord que les usagers touchs.
+ */
+class MeilleureReponseIncrementale {
+
+	/**
+	 * Une borne de l'intervalle de stabilit d'un usager, range dans un tas.
+	 * Elle est prime si l'usager a t rexamin depuis.
+	 */
+	private static class Borne {
+		final double facture;
+		final int usager;
+		final int version;
+
+		Borne(double facture, int usager, int version) {
+			this.facture = facture;
+			this.usager = usager;
+			this.version = version;
+		}
+	}
+
+	private final Logement logement;
+	private final EvaluateurUtilite evaluateur;
+	private final int nombreUsagers;
+	private final int nombreStrategies;
+
+	/**
+	 * Reoit les utilits de l'usager examin pour chacune de ses stratgies.
+	 */
+	private final double[] utilites;
+
+	private int[] strategies;
+	private double consommationTotale;
+	private double facture;
+
+	/**
+	 * Le vecteur de moindre regret mesur pendant la recherche, voir
+	 * {@link Logement#regret(int[])}.
+	 */
+	private int[] meilleurProfil;
+	private double meilleurRegret;
+	/**
+	 * Le regret du vecteur rendu par le dernier appel 
+	 * {@link #reprendre(boolean[], int)} : 0 pour un Nash pur.
+	 */
+	private double regretRendu;
+
+	/**
+	 * Les factures entre lesquelles la meilleure rponse de chaque usager ne
+	 * peut pas changer, depuis son dernier examen.
+	 */
+	private final double[] factureBasse;
+	private final double[] factureHaute;
+	private final int[] version;
+	private final boolean[] enAttente;
+
+	/**
+	 * Les usagers  rexaminer.
+	 */
+	private final ArrayDeque<Integer> aExaminer;
+	/**
+	 * Les bornes basses, la plus haute en tte, et les bornes hautes, la plus
+	 * basse en tte.
+	 */
+	private final PriorityQueue<Borne> bornesBasses;
+	private final PriorityQueue<Borne> bornesHautes;
+
+	MeilleureReponseIncrementale(Logement logement) {
+		this.logement = logement;
+		evaluateur = logement.evaluateur();
+		nombreUsagers = logement.nombreUsagers();
+		nombreStrategies = logement.nombreStrategies();
+		utilites = new double[nombreStrategies];
+
+		factureBasse = new double[nombreUsagers];
+		factureHaute = new double[nombreUsagers];
+		version = new int[nombreUsagers];
+		enAttente = new boolean[nombreUsagers];
+		aExaminer = new ArrayDeque<>(nombreUsagers);
+		bornesBasses = new PriorityQueue<>(Comparator.comparingDouble((Borne b) -> b.facture).reversed());
+		bornesHautes = new PriorityQueue<>(Comparator.comparingDouble((Borne b) -> b.facture));
+	}
+
+	/**
+	 * @param depart
+	 *            le vecteur de stratgies  partir duquel on cherche.
+	 * @param nombreIterations
+	 *            on abandonne aprs avoir examin nombreIterations fois autant
+	 *            d'usagers qu'il y en a dans le logement.
+	 * @return un vecteur de stratgies correspondant  un Nash pur, ou dont le
+	 *         regret ne dpasse pas {@link Logement#epsilon()}. null si on
+	 *         n'en a pas trouv, {@link #meilleurProfil()} donnant alors le
+	 *         meilleur vecteur rencontr.
+	 */
+	int[] resoudre(int[] depart, int nombreIterations) {
+		strategies = depart.clone();
+		meilleurProfil = null;
+		meilleurRegret = Double.POSITIVE_INFINITY;
+		consommationTotale = 0;
+		for (int i = 0; i < nombreUsagers; i++)
+			consommationTotale += evaluateur.consommation(i, strategies[i]);
+		facture = logement.facture(consommationTotale);
+
+		long examensRestants = (long) nombreIterations * nombreUsagers;
+		while (examensRestants > 0) {
+
+			// Au dpart, ou si l'quilibre trouv ne rsiste pas au recalcul
+			// exact de la facture, on examine tout le monde.
+			for (int i = 0; i < nombreUsagers; i++)
+				mettreEnAttente(i);
+
+			// Tous les nombreUsagers examens, on mesure le regret du vecteur
+			// courant.
+			long examens = 0;
+			while (!aExaminer.isEmpty() && examensRestants-- > 0) {
+				examiner(aExaminer.poll());
+				if (++examens % nombreUsagers == 0 && !aExaminer.isEmpty()) {
+					if (mesurer() <= logement.epsilon() && logement.epsilon() > 0)
+						return strategies;
+					if (logement.horsDelai())
+						return null;
+				}
+			}
+
+			if (aExaminer.isEmpty() && logement.testMixedNash(strategies))
+				return strategies;
+			mesurer();
+			if (logement.horsDelai())
+				return null;
+		}
+		return null;
+	}
+
+	/**
+	 * Repart de l'quilibre trouv par le dernier appel 
+	 * {@link #resoudre(int[], int)} ou  cette mthode, aprs une
+	 * modification des utilits des seuls usagers modifies. Les autres ne
+	 * sont rexamins que si la facture sort de leur intervalle de stabilit.
+	 * 
+	 * L'quilibre atteint n'est pas revrifi par
+	 * {@link Logement#testMixedNash(int[])}, qui examinerait tout le monde :
+	 * on recalcule seulement la consommation totale, et tant qu'elle donne
+	 * une autre facture que celle mise  jour au fil des changements, on
+	 * rveille les usagers dont l'intervalle ne la contient pas. Le cot est
+	 * ainsi proportionnel au nombre d'usagers touchs et de ceux que leurs
+	 * changements entranent.
+	 * 
+	 * @return voir {@link #resoudre(int[], int)}.
+	 */
+	int[] reprendre(boolean[] modifies, int nombreIterations) {
+		meilleurProfil = null;
+		meilleurRegret = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < nombreUsagers; i++)
+			if (modifies[i])
+				mettreEnAttente(i);
+
+		long examensRestants = (long) nombreIterations * nombreUsagers;
+		long examens = 0;
+		while (examensRestants > 0) {
+			while (!aExaminer.isEmpty() && examensRestants-- > 0) {
+				examiner(aExaminer.poll());
+				if (++examens % nombreUsagers == 0 && !aExaminer.isEmpty()) {
+					if ((regretRendu = mesurer()) <= logement.epsilon() && logement.epsilon() > 0)
+						return strategies;
+					if (logement.horsDelai())
+						return null;
+				}
+			}
+			if (!aExaminer.isEmpty())
+				break;
+
+			double consommation = 0;
+			for (int i = 0; i < nombreUsagers; i++)
+				consommation += evaluateur.consommation(i, strategies[i]);
+			consommationTotale = consommation;
+			double exacte = logement.facture(consommation);
+			if (exacte == facture) {
+				regretRendu = 0;
+				return strategies;
+			}
+			facture = exacte;
+			reveiller();
+		}
+		regretRendu = mesurer();
+		return null;
+	}
+
+	/**
+	 * @return le vecteur de moindre regret rencontr par le dernier appel 
+	 *         {@link #resoudre(int[], int)}.
+	 */
+	int[] meilleurProfil() {
+		return meilleurProfil;
+	}
+
+	/**
+	 * @return le regret du vecteur rendu par le dernier appel 
+	 *         {@link #reprendre(boolean[], int)}, ou de
+	 *         {@link #meilleurProfil()} s'il a chou.
+	 */
+	double regretRendu() {
+		return regretRendu;
+	}
+
+	/**
+	 * Mesure le regret du vecteur courant et le retient s'il est le meilleur.
+	 */
+	private double mesurer() {
+		double regret = evaluateur.regret(strategies, facture);
+		if (regret < meilleurRegret) {
+			meilleurRegret = regret;
+			meilleurProfil = strategies.clone();
+		}
+		return regret;
+	}
+
+	/**
+	 * Cherche la meilleure rponse de l'usager i  la facture courante. S'il
+	 * change de stratgie, on met  jour la facture et on remet en attente les
+	 * usagers concerns. Sinon, on mmorise l'intervalle de factures dans
+	 * lequel il ne changera pas.
+	 */
+	private void examiner(int i) {
+		enAttente[i] = false;
+		version[i]++;
+
+		int actuelle = strategies[i];
+		double factureAutres = facture - evaluateur.partFacture(i, actuelle);
+		evaluateur.utilitesDeviation(i, i + 1, strategies, facture, utilites);
+
+		// Comme dans Logement.meilleureReponse : on ne change de stratgie
+		// que pour une utilit strictement meilleure.
+		int choix = actuelle;
+		double utiliteMax = utilites[actuelle];
+		double secondeUtilite = Double.NEGATIVE_INFINITY;
+		double factureMin = facture;
+		for (int k = 0; k < nombreStrategies; k++) {
+			factureMin = Math.min(factureMin, factureAutres + evaluateur.partFacture(i, k));
+			double tmp = utilites[k];
+			if (utiliteMax < tmp) {
+				if (choix != k)
+					secondeUtilite = Math.max(secondeUtilite, utiliteMax);
+				choix = k;
+				utiliteMax = tmp;
+			} else if (k != choix)
+				secondeUtilite = Math.max(secondeUtilite, tmp);
+		}
+
+		if (choix != actuelle) {
+			strategies[i] = choix;
+			consommationTotale += evaluateur.consommation(i, choix) - evaluateur.consommation(i, actuelle);
+			double precedente = facture;
+			facture = logement.facture(consommationTotale);
+
+			// Ses propres factures de dviation ont boug : on le rexamine.
+			mettreEnAttente(i);
+			if (facture != precedente)
+				reveiller();
+			return;
+		}
+
+		// Quand la facture varie de d, chaque utilit varie d'au plus
+		// poids * exp(-factureMin) * e * |d| tant que |d| <= 1. L'cart avec la
+		// seconde stratgie ne peut donc pas s'annuler tant que |d| reste sous
+		// cette marge, que l'on divise encore par deux par prudence.
+		double sensibilite = evaluateur.poidsPrix(i) * Math.exp(-factureMin) * Math.E;
+		if (sensibilite == 0)
+			return;
+
+		double marge = Math.min(1, (utiliteMax - secondeUtilite) / (2 * sensibilite)) / 2;
+		factureBasse[i] = facture - marge;
+		factureHaute[i] = facture + marge;
+		bornesBasses.add(new Borne(factureBasse[i], i, version[i]));
+		bornesHautes.add(new Borne(factureHaute[i], i, version[i]));
+	}
+
+	/**
+	 * Met en attente les usagers dont l'intervalle de stabilit ne contient
+	 * plus la facture courante.
+	 */
+	private void reveiller() {
+		while (!bornesBasses.isEmpty() && bornesBasses.peek().facture > facture)
+			reveiller(bornesBasses.poll());
+		while (!bornesHautes.isEmpty() && bornesHautes.peek().facture < facture)
+			reveiller(bornesHautes.poll());
+	}
+
+	private void reveiller(Borne b) {
+		if (b.version == version[b.usager])
+			mettreEnAttente(b.usager);
+	}
+
+	private void mettreEnAttente(int i) {
+		if (enAttente[i])
+			return;
+		enAttente[i] = true;
+		version[i]++;
+		aExaminer.add(i);
+	}
+}
@@ -0,0 +1,190 @@
+package logement;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * L'tat d'une recherche longue, crit rgulirement dans un fichier pour
+ * pouvoir la reprendre l o elle s'tait arrte si le processus est
+ * interrompu, voir {@link Logement#setReprise(Path, long)}.
+ * 
+ * Le fichier est binaire : un en-tte, l'empreinte du calcul, puis l'tat
+ * propre  sa nature. Il est crit dans un fichier temporaire puis renomm,
+ * si bien qu'une interruption pendant l'criture laisse le point de reprise
+ * prcdent intact. Un point de reprise dont l'empreinte ne correspond pas au
+ * calcul lanc est ignor.
+ */
+class PointDeReprise {
+
+	/**
+	 * "FUGR", suivi du numro de version du format.
+	 */
+	private static final int MAGIQUE = 0x46554752;
+	private static final int VERSION = 2;
+
+	/**
+	 * Les natures de calcul.
+	 */
+	static final byte MONTECARLO = 1;
+	static final byte LRI = 2;
+
+	/**
+	 * La description canonique du calcul, voir Logement.empreinte.
+	 */
+	final String empreinte;
+	final byte nature;
+
+	/**
+	 * La position de la source alatoire du calcul.
+	 */
+	long etatTirage;
+
+	/**
+	 * Pour {@link #MONTECARLO} : la prochaine courbe  tester (valeur de
+	 * alpha et rang parmi les courbes de cette valeur), le nombre de courbes
+	 * dj examines, les paramtres de la meilleure courbe et son cot, et
+	 * le dernier quilibre, d'o repartent les analyses  chaud. La meilleure
+	 * courbe est rgnre  partir de ses paramtres.
+	 */
+	int alpha;
+	int test;
+	int evaluations;
+	double coutMin;
+	double meilleurAlpha;
+	long meilleureGraine;
+	int[] equilibre;
+
+	/**
+	 * Pour {@link #LRI} : les paramtres de la passe en cours, les utilits
+	 * prcdentes et le vecteur stochastique de chaque usager, et le vecteur
+	 * de moindre regret rencontr.
+	 */
+	double b;
+	double precision;
+	double[] utilite;
+	double[][] vecteurs;
+	int[] meilleur;
+	double regretMeilleur;
+
+	PointDeReprise(String empreinte, byte nature) {
+		this.empreinte = empreinte;
+		this.nature = nature;
+	}
+
+	/**
+	 * Remplace atomiquement le contenu de fichier par ce point de reprise.
+	 */
+	void ecrire(Path fichier) throws IOException {
+		Path repertoire = fichier.toAbsolutePath().getParent();
+		Path temporaire = Files.createTempFile(repertoire, "reprise", ".tmp");
+		try {
+			try (DataOutputStream sortie = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+				sortie.writeInt(MAGIQUE);
+				sortie.writeInt(VERSION);
+				sortie.writeUTF(empreinte);
+				sortie.writeByte(nature);
+				sortie.writeLong(etatTirage);
+
+				if (nature == MONTECARLO) {
+					sortie.writeInt(alpha);
+					sortie.writeInt(test);
+					sortie.writeInt(evaluations);
+					sortie.writeDouble(coutMin);
+					sortie.writeDouble(meilleurAlpha);
+					sortie.writeLong(meilleureGraine);
+					ecrire(sortie, equilibre);
+				} else {
+					sortie.writeDouble(b);
+					sortie.writeDouble(precision);
+					sortie.writeDouble(regretMeilleur);
+					ecrire(sortie, meilleur);
+					sortie.writeInt(vecteurs.length);
+					for (int i = 0; i < vecteurs.length; i++) {
+						sortie.writeDouble(utilite[i]);
+						sortie.writeInt(vecteurs[i].length);
+						for (double p : vecteurs[i])
+							sortie.writeDouble(p);
+					}
+				}
+			}
+			Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporaire);
+		}
+	}
+
+	/**
+	 * @return le point de reprise du calcul dcrit par empreinte crit dans
+	 *         fichier, null s'il n'y en a pas ou s'il concerne un autre
+	 *         calcul.
+	 */
+	static PointDeReprise lire(Path fichier, String empreinte, byte nature) {
+		try (DataInputStream entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier)))) {
+			if (entree.readInt() != MAGIQUE || entree.readInt() != VERSION)
+				return null;
+			String e = entree.readUTF();
+			if (!e.equals(empreinte) || entree.readByte() != nature)
+				return null;
+
+			PointDeReprise p = new PointDeReprise(e, nature);
+			p.etatTirage = entree.readLong();
+			if (nature == MONTECARLO) {
+				p.alpha = entree.readInt();
+				p.test = entree.readInt();
+				p.evaluations = entree.readInt();
+				p.coutMin = entree.readDouble();
+				p.meilleurAlpha = entree.readDouble();
+				p.meilleureGraine = entree.readLong();
+				p.equilibre = lireEntiers(entree);
+			} else {
+				p.b = entree.readDouble();
+				p.precision = entree.readDouble();
+				p.regretMeilleur = entree.readDouble();
+				p.meilleur = lireEntiers(entree);
+				int n = entree.readInt();
+				p.utilite = new double[n];
+				p.vecteurs = new double[n][];
+				for (int i = 0; i < n; i++) {
+					p.utilite[i] = entree.readDouble();
+					p.vecteurs[i] = new double[entree.readInt()];
+					for (int k = 0; k < p.vecteurs[i].length; k++)
+						p.vecteurs[i][k] = entree.readDouble();
+				}
+			}
+			return p;
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * crit un vecteur de stratgies, ventuellement null.
+	 */
+	private static void ecrire(DataOutputStream sortie, int[] vecteur) throws IOException {
+		sortie.writeInt(vecteur == null ? -1 : vecteur.length);
+		if (vecteur != null)
+			for (int v : vecteur)
+				sortie.writeInt(v);
+	}
+
+	private static int[] lireEntiers(DataInputStream entree) throws IOException {
+		int n = entree.readInt();
+		if (n < 0)
+			return null;
+		int[] vecteur = new int[n];
+		for (int i = 0; i < n; i++)
+			vecteur[i] = entree.readInt();
+		return vecteur;
+	}
+}
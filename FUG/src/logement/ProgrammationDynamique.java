@@ -0,0 +1,324 @@
+package logement;
+
+import java.util.Arrays;
+
+import usager.Usager;
+
+/**
+ * Recherche exacte d'un Nash pur par programmation dynamique sur la
+ * consommation totale.
+ *
+ * Un usager ne voit les stratgies des autres qu' travers la facture, donc
+ *  travers la consommation totale. Pour chaque stratgie s d'un usager, le
+ * gain  passer de s  une autre stratgie k est une fonction monotone de
+ * la facture : s est une meilleure rponse pour toutes les factures d'un
+ * intervalle, ventuellement vide, calcul une fois pour toutes. Ces
+ * intervalles, ramens  la consommation totale, dcoupent celle-ci en
+ * fentres sur lesquelles l'ensemble des stratgies acceptables de chaque
+ * usager est fixe.
+ *
+ * Un Nash pur existe dans une fentre si et seulement si on peut choisir une
+ * stratgie acceptable par usager de faon  ce que la consommation totale
+ * tombe dans la fentre. On le dtermine usager par usager, en ne gardant 
+ * chaque tape que les consommations partielles distinctes qui peuvent
+ * encore mener dans la fentre, et on retrouve les stratgies en remontant
+ * les tapes. Chaque somme partielle retient toutes les faons de
+ * l'atteindre : si le premier vecteur retrouv est refus, on essaie les
+ * suivants de la mme fentre, si bien qu'aucun Nash n'est manqu.
+ *
+ * Le cot est en O(f * m * n * c), avec f le nombre de fentres (au plus 2 *
+ * m * n + 1), m le nombre d'usagers, n le nombre de stratgies et c le
+ * nombre de consommations totales distinctes atteignables. Celui-ci reste
+ * petit lorsque le logement compte peu de profils diffrents, les
+ * consommations de chaque profil tant rgulirement espaces.
+ *
+ * Les bornes des intervalles sont largies de {@link #MARGE} pour ne jamais
+ * exclure un quilibre  cause d'une erreur d'arrondi ; chaque vecteur
+ * trouv est confirm par {@link Logement#testMixedNash(int[])}. Les
+ * vecteurs que cet largissement admet  tort sont ainsi carts ; ils
+ * peuvent rendre la recherche plus longue, mais pas fausse.
+ */
+class ProgrammationDynamique {
+
+	/**
+	 * L'largissement des intervalles de facture de chaque stratgie.
+	 */
+	private static final double MARGE = 1e-9;
+	/**
+	 * Deux consommations partielles plus proches que cela sont considres
+	 * comme gales.
+	 */
+	private static final double TOLERANCE = 1e-9;
+
+	private final Logement logement;
+	private final EvaluateurUtilite evaluateur;
+	private final int nombreUsagers;
+	private final int nombreStrategies;
+
+	/**
+	 * Les consommations totales entre lesquelles le couple (usager,
+	 * stratgie) est une meilleure rponse, ranges comme dans
+	 * {@link EvaluateurUtilite}. debut > fin si la stratgie n'est jamais une
+	 * meilleure rponse.
+	 */
+	private final double[] debut;
+	private final double[] fin;
+
+	/**
+	 * Pour la fentre examine, les stratgies acceptables de chaque usager.
+	 */
+	private final boolean[][] acceptables;
+
+	ProgrammationDynamique(Logement logement) {
+		this.logement = logement;
+		evaluateur = logement.evaluateur();
+		nombreUsagers = logement.nombreUsagers();
+		nombreStrategies = logement.nombreStrategies();
+		acceptables = new boolean[nombreUsagers][nombreStrategies];
+
+		debut = new double[nombreUsagers * nombreStrategies];
+		fin = new double[nombreUsagers * nombreStrategies];
+		for (int i = 0, c = 0; i < nombreUsagers; i++)
+			for (int s = 0; s < nombreStrategies; s++, c++) {
+				double[] factures = intervalleFactures(i, s);
+				double[] consommations = factures == null ? null
+						: logement.consommationsPourFactures(factures[0] - MARGE, factures[1] + MARGE);
+				if (consommations == null) {
+					debut[c] = Double.POSITIVE_INFINITY;
+					fin[c] = Double.NEGATIVE_INFINITY;
+				} else {
+					debut[c] = consommations[0];
+					fin[c] = consommations[1];
+				}
+			}
+	}
+
+	/**
+	 * Dans
+	 * {@link EvaluateurUtilite#utilitesDeviation(int, int, double, double[])},
+	 * passer de s  k rapporte  l'usager i
+	 * 
+	 * delta + poids * exp(-facture / RICHESSE) * (exp((part(s) - part(k)) /
+	 * RICHESSE) - 1),
+	 * 
+	 * delta tant la diffrence des termes qui ne dpendent pas de la
+	 * facture. Le signe de ce gain ne change qu'une fois quand la facture
+	 * augmente.
+	 * 
+	 * @return les factures minimale et maximale pour lesquelles aucune
+	 *         stratgie n'est strictement meilleure que s pour l'usager i,
+	 *         null s'il n'y en a pas.
+	 */
+	private double[] intervalleFactures(int i, int s) {
+		double min = Double.NEGATIVE_INFINITY;
+		double max = Double.POSITIVE_INFINITY;
+		double poids = evaluateur.poidsPrix(i);
+
+		for (int k = 0; k < nombreStrategies; k++) {
+			if (k == s)
+				continue;
+			double delta = evaluateur.utiliteHorsFacture(i, k) - evaluateur.utiliteHorsFacture(i, s);
+			double pente = poids
+					* (Math.exp((evaluateur.partFacture(i, s) - evaluateur.partFacture(i, k)) / Usager.RICHESSE) - 1);
+
+			// Avec x = exp(-facture / RICHESSE) > 0, il faut delta + pente * x
+			// <= 0.
+			if (pente == 0) {
+				if (delta > 0)
+					return null;
+			} else if (pente > 0) {
+				if (-delta / pente <= 0)
+					return null;
+				min = Math.max(min, -Usager.RICHESSE * Math.log(-delta / pente));
+			} else if (delta > 0)
+				max = Math.min(max, -Usager.RICHESSE * Math.log(delta / -pente));
+		}
+
+		return min <= max ? new double[] { min, max } : null;
+	}
+
+	/**
+	 * @return le vecteur de stratgies d'un Nash pur, null s'il n'en existe
+	 *         pas ou si le dlai de l'analyse est dpass. Toutes les
+	 *         fentres sont examines, mme les plus troites : un Nash peut
+	 *         tenir dans le recouvrement de deux intervalles largis.
+	 */
+	int[] resoudre() {
+
+		// Les consommations totales atteignables.
+		double minimum = 0;
+		double maximum = 0;
+		for (int i = 0; i < nombreUsagers; i++) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int s = 0; s < nombreStrategies; s++) {
+				min = Math.min(min, evaluateur.consommation(i, s));
+				max = Math.max(max, evaluateur.consommation(i, s));
+			}
+			minimum += min;
+			maximum += max;
+		}
+
+		// Les bornes des fentres : celles des intervalles de chaque couple
+		// (usager, stratgie) qui tombent entre les extrmes atteignables.
+		double[] bornes = new double[2 * debut.length + 2];
+		int nombreBornes = 0;
+		bornes[nombreBornes++] = minimum;
+		bornes[nombreBornes++] = maximum;
+		for (int c = 0; c < debut.length; c++) {
+			if (debut[c] > minimum && debut[c] < maximum)
+				bornes[nombreBornes++] = debut[c];
+			if (fin[c] > minimum && fin[c] < maximum)
+				bornes[nombreBornes++] = fin[c];
+		}
+		Arrays.sort(bornes, 0, nombreBornes);
+
+		for (int b = 0; b + 1 < nombreBornes; b++) {
+			if (logement.horsDelai())
+				return null;
+			int[] nash = chercher(bornes[b], bornes[b + 1]);
+			if (nash != null)
+				return nash;
+		}
+		return null;
+	}
+
+	/**
+	 * Cherche une stratgie acceptable par usager telle que la consommation
+	 * totale soit comprise entre basse et haute, et que le vecteur obtenu
+	 * passe {@link Logement#testMixedNash(int[])}.
+	 * 
+	 * @return le vecteur de stratgies trouv, null s'il n'y en a pas ou si
+	 *         le dlai de l'analyse est dpass.
+	 */
+	private int[] chercher(double basse, double haute) {
+
+		// Aucune borne ne tombe strictement entre basse et haute : une
+		// stratgie est acceptable sur toute la fentre si elle l'est en son
+		// milieu.
+		double milieu = (basse + haute) / 2;
+		for (int i = 0, c = 0; i < nombreUsagers; i++) {
+			boolean aucune = true;
+			for (int s = 0; s < nombreStrategies; s++, c++) {
+				acceptables[i][s] = debut[c] <= milieu && milieu <= fin[c];
+				aucune &= !acceptables[i][s];
+			}
+			if (aucune)
+				return null;
+		}
+
+		// Les consommations minimale et maximale des usagers i et suivants.
+		double[] minSuivants = new double[nombreUsagers + 1];
+		double[] maxSuivants = new double[nombreUsagers + 1];
+		for (int i = nombreUsagers - 1; i >= 0; i--) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int s = 0; s < nombreStrategies; s++)
+				if (acceptables[i][s]) {
+					min = Math.min(min, evaluateur.consommation(i, s));
+					max = Math.max(max, evaluateur.consommation(i, s));
+				}
+			minSuivants[i] = minSuivants[i + 1] + min;
+			maxSuivants[i] = maxSuivants[i + 1] + max;
+		}
+		if (minSuivants[0] > haute + TOLERANCE || maxSuivants[0] < basse - TOLERANCE)
+			return null;
+
+		// sommes[i] contient, par ordre croissant, les consommations
+		// distinctes des usagers 0  i - 1 qui peuvent encore mener dans la
+		// fentre. Chaque somme t peut tre atteinte de plusieurs faons,
+		// ranges de premiere[i][t] inclus  premiere[i][t + 1] exclu :
+		// strategie[i] et precedente[i] donnent pour chacune la stratgie de
+		// l'usager i - 1 et l'indice de la somme dont elle provient.
+		double[][] sommes = new double[nombreUsagers + 1][];
+		int[][] premiere = new int[nombreUsagers + 1][];
+		int[][] strategie = new int[nombreUsagers + 1][];
+		int[][] precedente = new int[nombreUsagers + 1][];
+		sommes[0] = new double[] { 0 };
+
+		int[] curseurs = new int[nombreStrategies];
+		for (int i = 0; i < nombreUsagers; i++) {
+			double[] avant = sommes[i];
+			int capacite = avant.length * nombreStrategies;
+			double[] apres = new double[capacite];
+			int[] debuts = new int[capacite + 1];
+			int[] choix = new int[capacite];
+			int[] origine = new int[capacite];
+			int taille = 0;
+			int facons = 0;
+
+			// Pour chaque stratgie acceptable, les sommes avant + consommation
+			// sont dj tries : on les fusionne.
+			Arrays.fill(curseurs, 0);
+			while (true) {
+				int meilleure = -1;
+				double valeur = Double.POSITIVE_INFINITY;
+				for (int s = 0; s < nombreStrategies; s++)
+					if (acceptables[i][s] && curseurs[s] < avant.length) {
+						double v = avant[curseurs[s]] + evaluateur.consommation(i, s);
+						if (v < valeur) {
+							valeur = v;
+							meilleure = s;
+						}
+					}
+				if (meilleure == -1)
+					break;
+				int j = curseurs[meilleure]++;
+
+				if (valeur + minSuivants[i + 1] > haute + TOLERANCE
+						|| valeur + maxSuivants[i + 1] < basse - TOLERANCE)
+					continue;
+				// Une valeur trop proche de la prcdente est une autre faon
+				// d'atteindre la mme somme.
+				if (taille == 0 || valeur - apres[taille - 1] > TOLERANCE) {
+					apres[taille] = valeur;
+					debuts[taille++] = facons;
+				}
+				choix[facons] = meilleure;
+				origine[facons++] = j;
+			}
+			if (taille == 0)
+				return null;
+			debuts[taille] = facons;
+
+			sommes[i + 1] = Arrays.copyOf(apres, taille);
+			premiere[i + 1] = Arrays.copyOf(debuts, taille + 1);
+			strategie[i + 1] = Arrays.copyOf(choix, facons);
+			precedente[i + 1] = Arrays.copyOf(origine, facons);
+		}
+
+		// Toutes les sommes restantes tombent dans la fentre. On parcourt en
+		// profondeur, depuis chacune, toutes les faons de l'atteindre :
+		// somme[i] est la somme de l'tape i par laquelle passe le vecteur en
+		// cours, et facon[i] la faon de l'atteindre que l'on suit.
+		int[] strategies = new int[nombreUsagers];
+		int[] somme = new int[nombreUsagers + 1];
+		int[] facon = new int[nombreUsagers + 1];
+		for (int t = 0; t < sommes[nombreUsagers].length; t++) {
+			int i = nombreUsagers;
+			somme[i] = t;
+			facon[i] = premiere[i][t];
+			while (i <= nombreUsagers) {
+				if (i == 0) {
+					// Un vecteur complet.
+					for (int k = 1; k <= nombreUsagers; k++)
+						strategies[k - 1] = strategie[k][facon[k]];
+					if (logement.testMixedNash(strategies))
+						return strategies;
+					if (logement.horsDelai())
+						return null;
+					facon[++i]++;
+				} else if (facon[i] == premiere[i][somme[i] + 1]) {
+					// Toutes les faons d'atteindre cette somme sont essayes.
+					if (++i <= nombreUsagers)
+						facon[i]++;
+				} else {
+					somme[i - 1] = precedente[i][facon[i]];
+					if (--i > 0)
+						facon[i] = premiere[i][somme[i]];
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,129 @@
+package logement;
+
+/**
+ * Recherche d'un Nash pur par meilleure rponse sur des grilles de
+ * stratgies de plus en plus fines.
+ * 
+ * Les tempratures des stratgies d'un usager tant rgulirement espaces,
+ * on commence par ne lui permettre qu'une stratgie sur pas, soit environ
+ * {@link #GRILLE_GROSSIERE} tempratures, et on cherche un quilibre sur
+ * cette grille. On divise ensuite le pas par deux en ne gardant, pour chaque
+ * usager, que les stratgies  moins de l'ancien pas de celle qu'il a
+ * choisie, et on recommence  partir de l'quilibre trouv jusqu' un pas de
+ * 1. Chaque niveau ne considre qu'environ {@link #GRILLE_GROSSIERE}
+ * stratgies par usager, quel que soit {@link Logement#nombreStrategies()}.
+ * 
+ * Comme dans {@link MeilleureReponseIncrementale}, les usagers changent de
+ * stratgie un par un et les utilits sont calcules exactement comme dans
+ * {@link Logement#meilleureReponse(int[], int)}. Le vecteur rendu n'est un
+ * quilibre que sur les dernires fentres ; {@link Logement} le vrifie
+ * ensuite par une meilleure rponse sur toutes les stratgies, qui n'a
+ * gnralement plus qu'un tour  faire.
+ */
+class RaffinementGrille {
+
+	/**
+	 * Le nombre de stratgies que chaque usager considre  chaque niveau.
+	 */
+	static final int GRILLE_GROSSIERE = 5;
+
+	private final Logement logement;
+	private final EvaluateurUtilite evaluateur;
+	private final int nombreUsagers;
+	private final int nombreStrategies;
+
+	/**
+	 * Les stratgies extrmes que chaque usager peut choisir au niveau
+	 * courant.
+	 */
+	private final int[] basse;
+	private final int[] haute;
+
+	private int[] strategies;
+	private double consommationTotale;
+	private double facture;
+
+	RaffinementGrille(Logement logement) {
+		this.logement = logement;
+		evaluateur = logement.evaluateur();
+		nombreUsagers = logement.nombreUsagers();
+		nombreStrategies = logement.nombreStrategies();
+		basse = new int[nombreUsagers];
+		haute = new int[nombreUsagers];
+	}
+
+	/**
+	 * @param depart
+	 *            le vecteur de stratgies  partir duquel on cherche.
+	 * @param nombreIterations
+	 *            le nombre maximal de tours  chaque niveau. Si les usagers
+	 *            bougent encore, on passe quand mme au niveau suivant.
+	 * @return le vecteur de stratgies atteint au niveau le plus fin.
+	 */
+	int[] resoudre(int[] depart, int nombreIterations) {
+		strategies = depart.clone();
+		consommationTotale = 0;
+		for (int i = 0; i < nombreUsagers; i++)
+			consommationTotale += evaluateur.consommation(i, strategies[i]);
+		facture = logement.facture(consommationTotale);
+
+		int pas = Math.max(1, (nombreStrategies - 1) / (GRILLE_GROSSIERE - 1));
+		for (int i = 0; i < nombreUsagers; i++) {
+			basse[i] = 0;
+			haute[i] = nombreStrategies - 1;
+		}
+
+		while (true) {
+			for (int n = 0; n < nombreIterations && !logement.horsDelai(); n++) {
+				boolean change = false;
+				for (int i = 0; i < nombreUsagers; i++)
+					change |= examiner(i, pas);
+				if (!change)
+					break;
+			}
+			if (pas == 1 || logement.horsDelai())
+				return strategies;
+
+			// On resserre la fentre de chaque usager autour de sa stratgie.
+			for (int i = 0; i < nombreUsagers; i++) {
+				basse[i] = Math.max(0, strategies[i] - pas);
+				haute[i] = Math.min(nombreStrategies - 1, strategies[i] + pas);
+			}
+			pas /= 2;
+		}
+	}
+
+	/**
+	 * Fait passer l'usager i  sa meilleure stratgie parmi celles de sa
+	 * fentre espaces de pas, et la sienne.
+	 * 
+	 * @return vrai s'il a chang de stratgie.
+	 */
+	private boolean examiner(int i, int pas) {
+		int actuelle = strategies[i];
+		int choix = actuelle;
+		double utiliteMax = evaluateur.utiliteDeviation(i, actuelle, actuelle, facture);
+
+		for (int k = basse[i];; k += pas) {
+
+			// La dernire stratgie de la fentre n'est pas toujours sur la
+			// grille : on l'examine aussi.
+			if (k > haute[i])
+				k = haute[i];
+			double tmp = evaluateur.utiliteDeviation(i, actuelle, k, facture);
+			if (utiliteMax < tmp) {
+				choix = k;
+				utiliteMax = tmp;
+			}
+			if (k == haute[i])
+				break;
+		}
+
+		if (choix == actuelle)
+			return false;
+		strategies[i] = choix;
+		consommationTotale += evaluateur.consommation(i, choix) - evaluateur.consommation(i, actuelle);
+		facture = logement.facture(consommationTotale);
+		return true;
+	}
+}
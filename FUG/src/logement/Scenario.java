@@ -0,0 +1,165 @@
+package logement;
+
+/**
+ * Les paramtres d'une analyse : la composition du logement, la situation et
+ * la faon de chercher l'quilibre. Un scnario ne change jamais ; les
+ * mthodes avec... renvoient un nouveau scnario. Il peut donc tre partag
+ * librement entre plusieurs tches, chacune crant son propre
+ * {@link Logement} par {@link Logement#Logement(Scenario)}. Deux logements
+ * crs  partir du mme scnario ne partagent rien de modifiable et donnent
+ * les mmes rsultats.
+ */
+public final class Scenario {
+
+	private final int nombreStrategies;
+	private final int nombreEcolos;
+	private final int nombrePollueurs;
+	private final int nombreVoyageurs;
+	private final int nombreFous;
+	/**
+	 * La graine de la source alatoire du logement.
+	 */
+	private final long graine;
+
+	private final double temperatureExterieure;
+	private final Logement.Politique politique;
+	private final Logement.Methode methode;
+
+	/**
+	 * Le nombre de paliers de la courbe de rduction.
+	 */
+	private final int resolutionCourbe;
+	/**
+	 * Les paramtres de la courbe de rduction, voir
+	 * {@link Logement#setCourbeReduction(double, long)}. Sans objet si
+	 * courbe est faux.
+	 */
+	private final boolean courbe;
+	private final double alphaCourbe;
+	private final long graineCourbe;
+
+	/**
+	 * Un scnario avec les paramtres par dfaut d'un nouveau
+	 * {@link Logement}, sans courbe de rduction.
+	 * 
+	 * @param nombreStrategies
+	 *            le nombre de stratgies de chaque usager.
+	 * @param nombreEcolos
+	 * @param nombrePollueurs
+	 * @param nombreVoyageurs
+	 * @param nombreFous
+	 * @param graine
+	 *            la graine de la source alatoire du logement.
+	 */
+	public Scenario(int nombreStrategies, int nombreEcolos, int nombrePollueurs, int nombreVoyageurs, int nombreFous,
+			long graine) {
+		this(nombreStrategies, nombreEcolos, nombrePollueurs, nombreVoyageurs, nombreFous, graine, 12.5,
+				Logement.Politique.MONTECARLO, Logement.Methode.MEILLEUREREPONSE, Logement.PAS_COURBE_REDUCTION, false,
+				0, 0);
+	}
+
+	private Scenario(int nombreStrategies, int nombreEcolos, int nombrePollueurs, int nombreVoyageurs, int nombreFous,
+			long graine, double temperatureExterieure, Logement.Politique politique, Logement.Methode methode,
+			int resolutionCourbe, boolean courbe, double alphaCourbe, long graineCourbe) {
+		this.nombreStrategies = nombreStrategies;
+		this.nombreEcolos = nombreEcolos;
+		this.nombrePollueurs = nombrePollueurs;
+		this.nombreVoyageurs = nombreVoyageurs;
+		this.nombreFous = nombreFous;
+		this.graine = graine;
+		this.temperatureExterieure = temperatureExterieure;
+		this.politique = politique;
+		this.methode = methode;
+		this.resolutionCourbe = resolutionCourbe;
+		this.courbe = courbe;
+		this.alphaCourbe = alphaCourbe;
+		this.graineCourbe = graineCourbe;
+	}
+
+	public Scenario avecTemperatureExterieure(double temperature) {
+		return new Scenario(nombreStrategies, nombreEcolos, nombrePollueurs, nombreVoyageurs, nombreFous, graine,
+				temperature, politique, methode, resolutionCourbe, courbe, alphaCourbe, graineCourbe);
+	}
+
+	public Scenario avecPolitique(Logement.Politique p) {
+		return new Scenario(nombreStrategies, nombreEcolos, nombrePollueurs, nombreVoyageurs, nombreFous, graine,
+				temperatureExterieure, p, methode, resolutionCourbe, courbe, alphaCourbe, graineCourbe);
+	}
+
+	public Scenario avecMethode(Logement.Methode m) {
+		return new Scenario(nombreStrategies, nombreEcolos, nombrePollueurs, nombreVoyageurs, nombreFous, graine,
+				temperatureExterieure, politique, m, resolutionCourbe, courbe, alphaCourbe, graineCourbe);
+	}
+
+	/**
+	 * @param resolution
+	 *            entre 1 et {@link CourbeReduction#RESOLUTION_MAX}.
+	 */
+	public Scenario avecResolutionCourbe(int resolution) {
+		return new Scenario(nombreStrategies, nombreEcolos, nombrePollueurs, nombreVoyageurs, nombreFous, graine,
+				temperatureExterieure, politique, methode, resolution, courbe, alphaCourbe, graineCourbe);
+	}
+
+	/**
+	 * @see Logement#setCourbeReduction(double, long)
+	 */
+	public Scenario avecCourbeReduction(double max, long seed) {
+		return new Scenario(nombreStrategies, nombreEcolos, nombrePollueurs, nombreVoyageurs, nombreFous, graine,
+				temperatureExterieure, politique, methode, resolutionCourbe, true, max, seed);
+	}
+
+	public int nombreStrategies() {
+		return nombreStrategies;
+	}
+
+	public int nombreEcolos() {
+		return nombreEcolos;
+	}
+
+	public int nombrePollueurs() {
+		return nombrePollueurs;
+	}
+
+	public int nombreVoyageurs() {
+		return nombreVoyageurs;
+	}
+
+	public int nombreFous() {
+		return nombreFous;
+	}
+
+	public long graine() {
+		return graine;
+	}
+
+	public double temperatureExterieure() {
+		return temperatureExterieure;
+	}
+
+	public Logement.Politique politique() {
+		return politique;
+	}
+
+	public Logement.Methode methode() {
+		return methode;
+	}
+
+	public int resolutionCourbe() {
+		return resolutionCourbe;
+	}
+
+	/**
+	 * @return vrai si le scnario prcise une courbe de rduction.
+	 */
+	public boolean courbe() {
+		return courbe;
+	}
+
+	public double alphaCourbe() {
+		return alphaCourbe;
+	}
+
+	public long graineCourbe() {
+		return graineCourbe;
+	}
+}
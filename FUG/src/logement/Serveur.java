@@ -0,0 +1,250 @@
+package logement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un processus qui reste lanc et analyse les scnarios qu'on lui soumet,
+ * pour ne payer qu'une fois le dmarrage de la JVM et la compilation  la
+ * vole des boucles de calcul.
+ * 
+ * Les requtes arrivent une par ligne, sur l'entre standard ou sur une
+ * socket locale :
+ * 
+ * [identifiant] [cl]=[valeur] ...
+ * 
+ * avec les cls strategies, ecolos, pollueurs, voyageurs, fous, graine,
+ * exterieure, politique, methode, resolution, alpha et courbe (la graine de
+ * la courbe de rduction, voir
+ * {@link Logement#setCourbeReduction(double, long)}), ainsi que epsilon et
+ * delai (voir {@link Logement#setEpsilon(double)} et
+ * {@link Logement#setDelai(long)}).
+ * Les cls absentes prennent les valeurs par dfaut de {@link Scenario}.
+ * La mthode bruteforce est refuse si son tableau dpasse
+ * {@link ChoixMethode#CASES_FORCE_BRUTE} cases.
+ * 
+ * Chaque requte est analyse par un {@link Logement} qui lui est propre,
+ * sur un ensemble de tches de taille fixe, et la rponse est renvoye ds
+ * qu'elle est prte, donc pas forcment dans l'ordre des requtes :
+ * 
+ * [identifiant] ok cout=... consommation=... confort=... regret=... temperatures=t1,t2,...
+ * 
+ * ou [identifiant] erreur [message]. Lorsque toutes les tches sont
+ * occupes et que la file d'attente est pleine, la lecture des requtes est
+ * suspendue.
+ */
+public class Serveur {
+
+	/**
+	 * Le nombre de requtes en attente au-del duquel on cesse de lire.
+	 */
+	private static final int FILE_ATTENTE = 1024;
+	/**
+	 * Le nombre d'analyses faites au dmarrage pour que les boucles de calcul
+	 * soient compiles avant la premire requte.
+	 */
+	private static final int PRECHAUFFAGE = 2000;
+
+	private final ThreadPoolExecutor taches;
+
+	/**
+	 * @param nombreTaches
+	 *            le nombre d'analyses menes en parallle.
+	 */
+	public Serveur(int nombreTaches) {
+		taches = new ThreadPoolExecutor(nombreTaches, nombreTaches, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(FILE_ATTENTE), new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	/**
+	 * Analyse de petits scnarios varis pour lancer la compilation des
+	 * mthodes les plus utilises.
+	 */
+	public void prechauffer() {
+		for (int i = 0; i < PRECHAUFFAGE; i++) {
+			Scenario s = new Scenario(3 + i % 8, 1 + i % 3, 1 + i % 2, i % 3, i % 2, i)
+					.avecMethode(i % 2 == 0 ? Logement.Methode.MEILLEUREREPONSE
+							: Logement.Methode.MEILLEUREREPONSEINCREMENTALE)
+					.avecTemperatureExterieure(5 + i % 15).avecCourbeReduction(0.5, i);
+			try {
+				new Logement(s).analyse();
+			} catch (RuntimeException e) {
+				// Certains scnarios n'ont pas d'quilibre, peu importe ici.
+			}
+		}
+	}
+
+	/**
+	 * Lit les requtes jusqu' la fin de l'entre et y rpond, puis attend
+	 * que toutes les rponses soient crites.
+	 */
+	public void servir(BufferedReader entree, PrintWriter sortie) throws IOException {
+
+		// Les requtes de cette entre dont la rponse n'est pas encore
+		// crite.
+		Phaser enCours = new Phaser(1);
+
+		String ligne;
+		while ((ligne = entree.readLine()) != null) {
+			ligne = ligne.trim();
+			if (ligne.isEmpty() || ligne.startsWith("#"))
+				continue;
+			String requete = ligne;
+			enCours.register();
+			taches.execute(() -> {
+				try {
+					String reponse = repondre(requete);
+					synchronized (sortie) {
+						sortie.println(reponse);
+						sortie.flush();
+					}
+				} finally {
+					enCours.arriveAndDeregister();
+				}
+			});
+		}
+		enCours.arriveAndAwaitAdvance();
+	}
+
+	/**
+	 * Accepte les connexions sur un port local, chacune tant servie par sa
+	 * propre tche de lecture ; les analyses partagent le mme ensemble de
+	 * tches.
+	 */
+	public void ecouter(int port) throws IOException {
+		try (ServerSocket serveur = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			while (true) {
+				Socket client = serveur.accept();
+				Thread lecteur = new Thread(() -> {
+					try (Socket s = client;
+							BufferedReader entree = new BufferedReader(
+									new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+							PrintWriter sortie = new PrintWriter(
+									new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+						servir(entree, sortie);
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				});
+				lecteur.setDaemon(true);
+				lecteur.start();
+			}
+		}
+	}
+
+	/**
+	 * Attend la fin des analyses en cours puis libre les tches.
+	 */
+	public void arreter() throws InterruptedException {
+		taches.shutdown();
+		taches.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return la rponse  une ligne de requte.
+	 */
+	static String repondre(String requete) {
+		String[] mots = requete.split("\\s+");
+		String identifiant = mots[0];
+		try {
+			Map<String, String> parametres = new HashMap<>();
+			for (int i = 1; i < mots.length; i++) {
+				int egal = mots[i].indexOf('=');
+				if (egal < 0)
+					throw new IllegalArgumentException("paramtre sans valeur : " + mots[i]);
+				parametres.put(mots[i].substring(0, egal), mots[i].substring(egal + 1));
+			}
+
+			Logement l = new Logement(scenario(parametres));
+			if (parametres.containsKey("epsilon"))
+				l.setEpsilon(Double.parseDouble(parametres.get("epsilon")));
+			if (parametres.containsKey("delai"))
+				l.setDelai(Long.parseLong(parametres.get("delai")));
+			l.analyse();
+
+			double[] temperatures = l.temperaturesUsagers();
+			if (temperatures == null)
+				return identifiant + " erreur aucun quilibre trouv";
+			StringBuilder reponse = new StringBuilder(identifiant);
+			reponse.append(" ok cout=").append(l.coutProprietaire());
+			reponse.append(" consommation=").append(l.consommationTotale());
+			reponse.append(" confort=").append(l.confortMoyen());
+			reponse.append(" regret=").append(l.dernierRegret());
+			reponse.append(" temperatures=");
+			for (int i = 0; i < temperatures.length; i++)
+				reponse.append(i == 0 ? "" : ",").append(temperatures[i]);
+			return reponse.toString();
+		} catch (Throwable e) {
+			// Y compris un manque de mmoire : le client reoit toujours une
+			// rponse, et la tche reste disponible.
+			return identifiant + " erreur " + (e.getMessage() != null ? e.getMessage() : e.toString());
+		}
+	}
+
+	private static Scenario scenario(Map<String, String> p) {
+		Scenario s = new Scenario(entier(p, "strategies", 5), entier(p, "ecolos", 0), entier(p, "pollueurs", 0),
+				entier(p, "voyageurs", 0), entier(p, "fous", 0), Long.parseLong(p.getOrDefault("graine", "0")));
+		if (s.nombreStrategies() < 2)
+			throw new IllegalArgumentException("il faut au moins 2 stratgies");
+		if (s.nombreEcolos() + s.nombrePollueurs() + s.nombreVoyageurs() + s.nombreFous() < 1)
+			throw new IllegalArgumentException("le logement est vide");
+
+		if (p.containsKey("exterieure"))
+			s = s.avecTemperatureExterieure(Double.parseDouble(p.get("exterieure")));
+		if (p.containsKey("politique"))
+			s = s.avecPolitique(Logement.Politique.valueOf(p.get("politique").toUpperCase()));
+		if (p.containsKey("methode"))
+			s = s.avecMethode(Logement.Methode.valueOf(p.get("methode").toUpperCase()));
+		if (s.methode() == Logement.Methode.BRUTEFORCE) {
+			int m = s.nombreEcolos() + s.nombrePollueurs() + s.nombreVoyageurs() + s.nombreFous();
+			double cases = Math.pow(s.nombreStrategies(), m) * m;
+			if (cases > ChoixMethode.CASES_FORCE_BRUTE)
+				throw new IllegalArgumentException(String.format(
+						"force brute impossible : tableau de %.2g cases, au plus %.2g", cases,
+						ChoixMethode.CASES_FORCE_BRUTE));
+		}
+		if (p.containsKey("resolution"))
+			s = s.avecResolutionCourbe(entier(p, "resolution", 0));
+		if (p.containsKey("alpha") || s.politique() == Logement.Politique.MONTECARLO)
+			s = s.avecCourbeReduction(Double.parseDouble(p.getOrDefault("alpha", "0.5")),
+					Long.parseLong(p.getOrDefault("courbe", "0")));
+		return s;
+	}
+
+	private static int entier(Map<String, String> p, String cle, int defaut) {
+		return p.containsKey(cle) ? Integer.parseInt(p.get(cle)) : defaut;
+	}
+
+	/**
+	 * @param argv
+	 *            [nombre de tches] [port]. Sans port, les requtes sont lues
+	 *            sur l'entre standard et les rponses crites sur la sortie
+	 *            standard.
+	 */
+	public static void main(String argv[]) throws IOException, InterruptedException {
+		int nombreTaches = argv.length > 0 ? Integer.parseInt(argv[0]) : Runtime.getRuntime().availableProcessors();
+		Serveur serveur = new Serveur(nombreTaches);
+		serveur.prechauffer();
+
+		if (argv.length > 1)
+			serveur.ecouter(Integer.parseInt(argv[1]));
+		else {
+			serveur.servir(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)),
+					new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+			serveur.arreter();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package logement;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Une source de nombres alatoires propre  un logement,  un usager ou  une
+ * tche. Contrairement  Math.random(), elle ne partage aucun tat avec les
+ * autres sources : deux simulations lances en parallle ne se gnent pas, et
+ * une simulation lance avec la mme graine donne exactement le mme
+ * rsultat.
+ * 
+ * Le gnrateur est un SplitMix64. {@link #separer()} cre une nouvelle source
+ * indpendante, ce qui permet de donner  chaque tche son propre flux tout en
+ * gardant une excution reproductible.
+ */
+public class SourceAleatoire {
+
+	/**
+	 * L'incrment de l'tat  chaque tirage (partie fractionnaire du nombre
+	 * d'or).
+	 */
+	private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * Sert  choisir une graine pour les sources cres sans graine.
+	 */
+	private static final AtomicLong GRAINES = new AtomicLong(System.nanoTime());
+
+	/**
+	 * La graine  partir de laquelle la source a t cre.
+	 */
+	private final long graine;
+
+	private long etat;
+
+	/**
+	 * @param graine
+	 *            deux sources cres avec la mme graine produisent la mme
+	 *            suite de nombres.
+	 */
+	public SourceAleatoire(long graine) {
+		this.graine = graine;
+		etat = graine;
+	}
+
+	/**
+	 * Cre une source dont la graine est choisie arbitrairement. Elle reste
+	 * consultable par {@link #graine()} pour rejouer la simulation.
+	 */
+	public SourceAleatoire() {
+		this(melanger(GRAINES.getAndAdd(GAMMA)));
+	}
+
+	/**
+	 * @return un entier alatoire sur 64 bits.
+	 */
+	public long nextLong() {
+		return melanger(etat += GAMMA);
+	}
+
+	/**
+	 * @return un nombre alatoire entre 0 (inclus) et 1 (exclu).
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * @param borne
+	 *            strictement positive.
+	 * @return un entier alatoire entre 0 (inclus) et borne (exclue).
+	 */
+	public int nextInt(int borne) {
+		if (borne <= 0)
+			throw new IllegalArgumentException("La borne doit tre strictement positive.");
+		return (int) ((nextLong() >>> 33) * borne >>> 31);
+	}
+
+	/**
+	 * @return une nouvelle source, indpendante de celle-ci, dont la graine
+	 *         est tire dans celle-ci. Sparer deux fois une source  partir
+	 *         du mme tat donne deux fois la mme nouvelle source.
+	 */
+	public SourceAleatoire separer() {
+		return new SourceAleatoire(nextLong());
+	}
+
+	public long graine() {
+		return graine;
+	}
+
+	/**
+	 * @return la position de la source dans sa suite de nombres,  passer 
+	 *         {@link #restaurer(long)} pour reprendre les tirages au mme
+	 *         point, par exemple dans un point de reprise.
+	 */
+	long etat() {
+		return etat;
+	}
+
+	/**
+	 * Replace la source  une position obtenue par {@link #etat()}.
+	 */
+	void restaurer(long etat) {
+		this.etat = etat;
+	}
+
+	private static long melanger(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,215 @@
+package logement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Estime le cot pour le propritaire d'une courbe de rduction sans
+ * analyser le logement,  partir des courbes dj analyses, pour carter
+ * d'avance les courbes candidates qui n'ont aucune chance de battre la
+ * meilleure.
+ * 
+ * Une courbe n'influence les usagers qu' travers ses valeurs aux
+ * tempratures de leurs stratgies. On la dcrit donc par ces valeurs, chacune
+ * pondre par le nombre de couples (usager, stratgie) qui choisissent cette
+ * temprature, et on estime son cot par la moyenne de ceux de ses
+ * {@link #VOISINS} plus proches voisines parmi les courbes analyses,
+ * pondre par l'inverse de leur distance.
+ * 
+ * L'erreur de l'estimation est mesure au fur et  mesure sur les courbes que
+ * l'on analyse quand mme. Une courbe n'est carte que si son cot estim
+ * dpasse le meilleur cot connu de plus de {@link #ECARTS} fois l'erreur
+ * moyenne, et si sa plus proche voisine n'est pas plus loigne que celles
+ * des estimations dont on a mesur l'erreur : les courbes sont tires par
+ * valeur de alpha croissante, et une estimation loin des exemples n'est pas
+ * fiable. Une courbe sur {@link #VERIFICATION} qui devrait tre carte est
+ * analyse quand mme, pour que l'erreur reste  jour.
+ */
+class Substitut {
+
+	/**
+	 * Le nombre de courbes analyses dont on fait la moyenne.
+	 */
+	static final int VOISINS = 5;
+	/**
+	 * Le nombre de courbes  analyser avant de se fier aux estimations.
+	 */
+	static final int APPRENTISSAGE = 20;
+	/**
+	 * La marge, en nombre d'erreurs moyennes, accorde  une courbe avant de
+	 * l'carter.
+	 */
+	static final double ECARTS = 2;
+	/**
+	 * On analyse quand mme une courbe carte sur VERIFICATION.
+	 */
+	static final int VERIFICATION = 10;
+
+	private final Logement logement;
+
+	/**
+	 * Les tempratures distinctes des stratgies des usagers, par ordre
+	 * croissant, et le nombre de couples (usager, stratgie) correspondant 
+	 * chacune.
+	 */
+	private final double[] temperatures;
+	private final double[] poids;
+
+	/**
+	 * Les courbes analyses et leur cot.
+	 */
+	private final List<double[]> exemples = new ArrayList<>();
+	private final List<Double> couts = new ArrayList<>();
+
+	private int evitees;
+	private int ecartees;
+	private int predictions;
+	private double erreurTotale;
+	private double biais;
+
+	/**
+	 * Les plus proches voisines de la dernire estimation.
+	 */
+	private final int[] voisines = new int[VOISINS];
+	private final double[] distances = new double[VOISINS];
+	/**
+	 * La plus grande distance  sa plus proche voisine d'une courbe dont on a
+	 * mesur l'erreur d'estimation.
+	 */
+	private double distanceVerifiee;
+
+	Substitut(Logement logement) {
+		this.logement = logement;
+
+		double[] toutes = new double[logement.nombreUsagers() * logement.nombreStrategies()];
+		for (int i = 0, c = 0; i < logement.nombreUsagers(); i++)
+			for (int k = 0; k < logement.nombreStrategies(); k++, c++)
+				toutes[c] = logement.strategieToTemperature(k, logement.usager(i));
+		Arrays.sort(toutes);
+
+		int distinctes = 0;
+		double[] poidsDistinctes = new double[toutes.length];
+		for (int c = 0; c < toutes.length; c++) {
+			if (distinctes == 0 || toutes[c] != toutes[distinctes - 1])
+				toutes[distinctes++] = toutes[c];
+			poidsDistinctes[distinctes - 1]++;
+		}
+		temperatures = Arrays.copyOf(toutes, distinctes);
+		poids = Arrays.copyOf(poidsDistinctes, distinctes);
+	}
+
+	/**
+	 * @return la description de la courbe de rduction actuelle du logement.
+	 */
+	double[] caracteristiques() {
+		double[] x = new double[temperatures.length];
+		logement.temperaturesToReductions(temperatures, x);
+		return x;
+	}
+
+	/**
+	 * @return le cot estim de la courbe dcrite par x, NaN tant que trop
+	 *         peu de courbes ont t analyses.
+	 */
+	double estimer(double[] x) {
+		int n = exemples.size();
+		if (n < APPRENTISSAGE)
+			return Double.NaN;
+
+		// On garde les VOISINS plus proches, tries par distance croissante.
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		for (int e = 0; e < n; e++) {
+			double d = distance(x, exemples.get(e));
+			if (d >= distances[VOISINS - 1])
+				continue;
+			int j = VOISINS - 1;
+			for (; j > 0 && distances[j - 1] > d; j--) {
+				distances[j] = distances[j - 1];
+				voisines[j] = voisines[j - 1];
+			}
+			distances[j] = d;
+			voisines[j] = e;
+		}
+
+		if (distances[0] == 0)
+			return couts.get(voisines[0]);
+		double somme = 0;
+		double sommePoids = 0;
+		for (int j = 0; j < VOISINS; j++) {
+			somme += couts.get(voisines[j]) / distances[j];
+			sommePoids += 1 / distances[j];
+		}
+		return somme / sommePoids;
+	}
+
+	/**
+	 * @param estimation
+	 *            le cot estim d'une courbe, voir {@link #estimer(double[])}.
+	 * @param coutMin
+	 *            le meilleur cot connu.
+	 * @return vrai s'il est inutile d'analyser la courbe.
+	 */
+	boolean ecarter(double estimation, double coutMin) {
+		// On mesure l'erreur sur autant de courbes qu'il en a fallu pour
+		// apprendre avant de s'y fier.
+		if (Double.isNaN(estimation) || predictions < APPRENTISSAGE || distances[0] > distanceVerifiee
+				|| estimation - ECARTS * erreurMoyenne() <= coutMin)
+			return false;
+		if (++ecartees % VERIFICATION == 0)
+			return false;
+		evitees++;
+		return true;
+	}
+
+	/**
+	 * Ajoute une courbe analyse aux exemples. Si son cot a t estim,
+	 * x doit tre la dernire courbe passe  {@link #estimer(double[])}.
+	 * 
+	 * @param estimation
+	 *            son cot estim avant l'analyse, NaN s'il n'y en avait pas.
+	 * @param cout
+	 *            son cot rel.
+	 */
+	void apprendre(double[] x, double estimation, double cout) {
+		if (!Double.isNaN(estimation)) {
+			predictions++;
+			erreurTotale += Math.abs(estimation - cout);
+			biais += estimation - cout;
+			distanceVerifiee = Math.max(distanceVerifiee, distances[0]);
+		}
+		exemples.add(x);
+		couts.add(cout);
+	}
+
+	/**
+	 * @return l'cart moyen entre le cot estim et le cot rel des courbes
+	 *         analyses aprs l'apprentissage.
+	 */
+	double erreurMoyenne() {
+		return predictions == 0 ? 0 : erreurTotale / predictions;
+	}
+
+	/**
+	 * @return le nombre de courbes cartes sans tre analyses.
+	 */
+	int evitees() {
+		return evitees;
+	}
+
+	/**
+	 * @return le bilan de la recherche, sur une ligne.
+	 */
+	String rapport() {
+		return "Substitut : " + evitees + " analyses vites sur " + (evitees + exemples.size())
+				+ " courbes, erreur moyenne " + erreurMoyenne() + " (biais "
+				+ (predictions == 0 ? 0 : biais / predictions) + ") sur " + predictions + " estimations vrifies";
+	}
+
+	private double distance(double[] x, double[] y) {
+		double d = 0;
+		for (int j = 0; j < x.length; j++)
+			d += poids[j] * (x[j] - y[j]) * (x[j] - y[j]);
+		return d;
+	}
+}
@@ -0,0 +1,119 @@
+package logement;
+
+import java.util.Random;
+
+import usager.Usager;
+
+/**
+ * Vrifie sur des scnarios tirs au hasard que les utilits calcules par
+ * blocs par {@link EvaluateurUtilite} sont celles que donne
+ * {@link Usager#utiliteTotale(double, double, double)}, usager par usager,
+ * comme le faisaient les mthodes de recherche avant l'valuateur.
+ * 
+ * Pour chaque scnario, on compare
+ * {@link EvaluateurUtilite#utilite(int, int, double)} et les deux formes de
+ * utilitesDeviation sur un vecteur de stratgies tir au hasard. On
+ * recommence aprs un changement de temprature extrieure, un changement
+ * de politique, puis une retouche de la courbe par
+ * {@link Logement#modifierCourbe(int, int, double)}, qui ne recalcule
+ * qu'une partie des termes.
+ */
+class VerificationEvaluateur {
+
+	/**
+	 * L'cart maximal tolr entre deux utilits.
+	 */
+	private static final double TOLERANCE = 1e-12;
+
+	private final Logement logement;
+	private final Random rand;
+	private double ecartMax;
+	private long comparaisons;
+
+	private VerificationEvaluateur(Logement logement, Random rand) {
+		this.logement = logement;
+		this.rand = rand;
+	}
+
+	/**
+	 * Compare toutes les utilits de l'valuateur courant du logement  leur
+	 * calcul usager par usager, pour un vecteur de stratgies tir au hasard.
+	 */
+	private void verifier() {
+		int m = logement.nombreUsagers();
+		int n = logement.nombreStrategies();
+		EvaluateurUtilite e = logement.evaluateur();
+
+		int[] strategies = new int[m];
+		for (int i = 0; i < m; i++)
+			strategies[i] = rand.nextInt(n);
+		double facture = logement.factureIndividuelle(strategies);
+
+		double[] blocs = new double[m * n];
+		double[] ligne = new double[n];
+		e.utilitesDeviation(0, m, strategies, facture, blocs);
+
+		for (int i = 0; i < m; i++) {
+			Usager u = logement.usager(i);
+			double temperature = logement.strategieToTemperature(strategies[i], u);
+			comparer(e.utilite(i, strategies[i], facture),
+					u.utiliteTotale(temperature, facture, logement.temperatureToReduction(temperature)));
+
+			// L'usager i passe seul  la stratgie k.
+			e.utilitesDeviation(i, strategies[i], facture, ligne);
+			double factureAutres = facture - logement.consommationIndividuelle(temperature) / m;
+			for (int k = 0; k < n; k++) {
+				double t = logement.strategieToTemperature(k, u);
+				double attendue = u.utiliteTotale(t, factureAutres + logement.consommationIndividuelle(t) / m,
+						logement.strategieToReduction(k, u));
+				comparer(blocs[i * n + k], attendue);
+				comparer(ligne[k], attendue);
+			}
+		}
+	}
+
+	private void comparer(double calculee, double attendue) {
+		ecartMax = Math.max(ecartMax, Math.abs(calculee - attendue));
+		comparaisons++;
+	}
+
+	/**
+	 * @param argv
+	 *            [nombre de scnarios] [graine]. Le programme se termine avec
+	 *            le code 1 si un cart dpasse {@link #TOLERANCE}.
+	 */
+	public static void main(String argv[]) {
+		int scenarios = argv.length > 0 ? Integer.parseInt(argv[0]) : 200;
+		Random rand = new Random(argv.length > 1 ? Long.parseLong(argv[1]) : 0);
+		Logement.Politique[] politiques = Logement.Politique.values();
+
+		double ecartMax = 0;
+		long comparaisons = 0;
+		for (int s = 0; s < scenarios; s++) {
+			Scenario scenario = new Scenario(2 + rand.nextInt(12), rand.nextInt(20), rand.nextInt(20), rand.nextInt(10),
+					1 + rand.nextInt(5), rand.nextLong()).avecTemperatureExterieure(rand.nextDouble() * 20)
+							.avecPolitique(politiques[rand.nextInt(politiques.length)])
+							.avecResolutionCourbe(1 + rand.nextInt(CourbeReduction.RESOLUTION_MAX))
+							.avecCourbeReduction(rand.nextDouble(), rand.nextLong());
+			Logement l = new Logement(scenario);
+			VerificationEvaluateur v = new VerificationEvaluateur(l, rand);
+
+			v.verifier();
+			l.setTemperatureExterieure(rand.nextDouble() * 20);
+			v.verifier();
+			l.setPolitique(Logement.Politique.MONTECARLO);
+			v.verifier();
+			int resolution = scenario.resolutionCourbe();
+			int premier = rand.nextInt(resolution);
+			l.modifierCourbe(premier, premier + rand.nextInt(resolution - premier), rand.nextDouble());
+			v.verifier();
+
+			ecartMax = Math.max(ecartMax, v.ecartMax);
+			comparaisons += v.comparaisons;
+		}
+
+		System.out.println(scenarios + " scnarios, " + comparaisons + " utilits compares, cart maximal " + ecartMax);
+		if (ecartMax > TOLERANCE)
+			System.exit(1);
+	}
+}
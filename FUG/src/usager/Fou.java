@@ -1,12 +1,21 @@
 package usager;
 
 import logement.Logement;
+import logement.SourceAleatoire;
 
 public class Fou extends Usager {
 
 	public Fou() {
-		super(Usager.TEMPERATURE_MINIMALE + Math.random() * (Logement.TEMPERATURE_MAX - Usager.TEMPERATURE_MINIMALE),
-				Math.random(), Math.random(), Math.random());
+		this(new SourceAleatoire());
+	}
+
+	/**
+	 * @param alea
+	 *            la source dans laquelle on tire les paramtres de l'usager.
+	 */
+	public Fou(SourceAleatoire alea) {
+		super(Usager.TEMPERATURE_MINIMALE + alea.nextDouble() * (Logement.TEMPERATURE_MAX - Usager.TEMPERATURE_MINIMALE),
+				alea.nextDouble(), alea.nextDouble(), alea.nextDouble());
 	}
 
 	@Override
@@ -1,6 +1,6 @@
 package usager;
 
-public abstract class Usager {
+public abstract class Usager implements Cloneable {
 
 	/**
 	 * La temprature minimale supporte par l'usager.
@@ -85,6 +85,35 @@ public abstract class Usager {
 		this.nombreStrategies = nombreDeStrategies;
 	}
 
+	/**
+	 * Comme {@link #setVecteurStochastique(int)}, mais une partie de la
+	 * probabilit est concentre sur une stratgie, par exemple celle que
+	 * l'usager suivait lors d'un quilibre prcdent.
+	 * 
+	 * @param nombreDeStrategies
+	 *            la taille du vecteur  initialiser.
+	 * @param strategie
+	 *            la stratgie favorise.
+	 * @param poids
+	 *            la part de la probabilit attribue d'office  strategie,
+	 *            entre 0 et 1. Le reste est rparti quitablement.
+	 */
+	public void setVecteurStochastique(int nombreDeStrategies, int strategie, double poids) {
+		setVecteurStochastique(nombreDeStrategies);
+		for (int i = 0; i < nombreDeStrategies; i++)
+			vecteurStochastique[i] *= 1 - poids;
+		vecteurStochastique[strategie] += poids;
+	}
+
+	/**
+	 * Remplace le vecteur stochastique par une copie de vecteur, par exemple
+	 * pour reprendre une recherche LRI interrompue.
+	 */
+	public void setVecteurStochastique(double[] vecteur) {
+		vecteurStochastique = vecteur.clone();
+		nombreStrategies = vecteur.length;
+	}
+
 	/**
 	 * Choisit une stratgie en fonction du vecteur stochastique initialis par
 	 * {@link #setVecteurStochastique(int)} et modifier par
@@ -114,6 +143,21 @@ public abstract class Usager {
 		return satisfaction;
 	}
 
+	/**
+	 * @return le terme de confort de {@link #utiliteTotale(double, double, double)}.
+	 */
+	public double utiliteConfortPonderee(double temperature) {
+		return utiliteTemperature(temperature) * poidsConfort;
+	}
+
+	/**
+	 * @return le terme de rduction de
+	 *         {@link #utiliteTotale(double, double, double)}.
+	 */
+	public double utiliteReductionPonderee(double reduction) {
+		return utiliteReductionTransports(reduction) * poidsPrixTransports;
+	}
+
 	private double utiliteReductionTransports(double reduction) {
 		return (1 - Math.exp(-reduction * MULTIPLICATEUR_REDUCTION)) / (1 - Math.exp(-MULTIPLICATEUR_REDUCTION));
 	}
@@ -130,7 +174,11 @@ public abstract class Usager {
 		return (temp - TEMPERATURE_MINIMALE) / (temperatureIdeale - TEMPERATURE_MINIMALE);
 	}
 
-	private double utiliteTemperature(double temperature) {
+	/**
+	 * @return le confort ressenti  cette temprature, entre 0 et 1. Il vaut
+	 *         1  la temprature idale.
+	 */
+	public double utiliteTemperature(double temperature) {
 		temperature = normaliseTemperature(temperature);
 		double ti = normaliseTemperature(temperatureIdeale);
 
@@ -166,6 +214,10 @@ public abstract class Usager {
 		return vecteurStochastique;
 	}
 
+	public double poidsPrixChauffage() {
+		return poidsPrixChauffage;
+	}
+
 	public double poidsPrixTransports() {
 		return poidsPrixTransports / (poidsConfort + poidsPrixChauffage + poidsPrixTransports);
 	}
@@ -191,6 +243,42 @@ public abstract class Usager {
 		return -1;
 	}
 
+	/**
+	 * @return la stratgie de plus grande probabilit dans le vecteur
+	 *         stochastique.
+	 */
+	public int strategieLaPlusProbable() {
+		int meilleure = 0;
+		for (int i = 1; i < nombreStrategies; i++)
+			if (vecteurStochastique[i] > vecteurStochastique[meilleure])
+				meilleure = i;
+		return meilleure;
+	}
+
+	/**
+	 * @return vrai si autre a exactement les mmes prfrences que cet usager :
+	 *         ils obtiennent alors la mme utilit dans la mme situation.
+	 */
+	public boolean memeProfil(Usager autre) {
+		return temperatureIdeale == autre.temperatureIdeale && poidsPrixChauffage == autre.poidsPrixChauffage
+				&& poidsPrixTransports == autre.poidsPrixTransports && poidsConfort == autre.poidsConfort;
+	}
+
+	/**
+	 * @return un usager identique  celui-ci, dont le vecteur stochastique
+	 *         peut voluer indpendamment.
+	 */
+	public Usager copie() {
+		try {
+			Usager u = (Usager) clone();
+			if (vecteurStochastique != null)
+				u.vecteurStochastique = vecteurStochastique.clone();
+			return u;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	public double probabilite(int i) {
 		return vecteurStochastique[i];
 	}